@@ -0,0 +1,178 @@
+package com.example.bubbletodo;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every animation the bubble field runs, so they can be handled together: all of them pause
+ * while the activity is in the background, a bubble's animations are cancelled when it leaves
+ * the field, and no more than the budget run at once. An animation over the budget is not
+ * dropped but frozen, jumped to its end so its end listeners still run; animations of bubbles
+ * hidden by the search filter go first, then the oldest.
+ *
+ * Animators are driven through {@link Animation}, so the bookkeeping does not depend on
+ * {@link Animator} itself. Not thread-safe; main thread only, like the animators themselves.
+ */
+class BubbleAnimators {
+    static final int DEFAULT_BUDGET = 32;
+
+    /** The part of an animator this class drives. */
+    interface Animation {
+        /** Runs {@code onEnd} once when the animation ends or is cancelled; set before start. */
+        void setOnEnd(Runnable onEnd);
+
+        void start();
+
+        void end();
+
+        void cancel();
+
+        void pause();
+
+        void resume();
+    }
+
+    private final List<Tracked> running = new ArrayList<>();
+    private int budget = DEFAULT_BUDGET;
+    private boolean paused;
+
+    private final class Tracked implements Runnable {
+        final Animation animator;
+        final List<BubbleFieldView.Bubble> bubbles;
+
+        Tracked(Animation animator, List<BubbleFieldView.Bubble> bubbles) {
+            this.animator = animator;
+            this.bubbles = bubbles;
+        }
+
+        boolean isHidden() {
+            for (int i = 0, n = bubbles.size(); i < n; i++) {
+                if (!bubbles.get(i).isHidden()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            running.remove(this);
+            for (int i = 0, n = bubbles.size(); i < n; i++) {
+                bubbles.get(i).animators.remove(animator);
+            }
+        }
+    }
+
+    private static final class AnimatorAnimation implements Animation {
+        private final Animator animator;
+
+        AnimatorAnimation(Animator animator) {
+            this.animator = animator;
+        }
+
+        @Override
+        public void setOnEnd(Runnable onEnd) {
+            animator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    animation.removeListener(this);
+                    onEnd.run();
+                }
+            });
+        }
+
+        @Override public void start() { animator.start(); }
+        @Override public void end() { animator.end(); }
+        @Override public void cancel() { animator.cancel(); }
+        @Override public void pause() { animator.pause(); }
+        @Override public void resume() { animator.resume(); }
+    }
+
+    /** At least one; animations beyond it are frozen. */
+    void setBudget(int budget) {
+        this.budget = Math.max(1, budget);
+        freezeOverBudget();
+    }
+
+    int getBudget() {
+        return budget;
+    }
+
+    int getRunningCount() {
+        return running.size();
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Starts an animation of the bubbles. While paused, or if none of them is visible, it is
+     * frozen at its end right away.
+     */
+    void start(Animator animator, List<BubbleFieldView.Bubble> bubbles) {
+        start(new AnimatorAnimation(animator), bubbles);
+    }
+
+    void start(Animation animator, List<BubbleFieldView.Bubble> bubbles) {
+        Tracked tracked = new Tracked(animator, bubbles);
+        for (int i = 0, n = bubbles.size(); i < n; i++) {
+            bubbles.get(i).animators.add(animator);
+        }
+        running.add(tracked);
+        animator.setOnEnd(tracked);
+        animator.start();
+        if (paused || tracked.isHidden()) {
+            animator.end();
+            return;
+        }
+        freezeOverBudget();
+    }
+
+    /** Cancels the bubble's animations where they are, e.g. when its task is closed. */
+    void cancel(BubbleFieldView.Bubble bubble) {
+        if (bubble.animators.isEmpty()) {
+            return;
+        }
+        // Cancelling ends the animator, whose end callback takes it off the list.
+        Animation[] owned = bubble.animators.toArray(new Animation[0]);
+        for (Animation animator : owned) {
+            animator.cancel();
+        }
+    }
+
+    void pause() {
+        paused = true;
+        for (int i = 0, n = running.size(); i < n; i++) {
+            running.get(i).animator.pause();
+        }
+    }
+
+    void resume() {
+        paused = false;
+        for (int i = 0, n = running.size(); i < n; i++) {
+            running.get(i).animator.resume();
+        }
+    }
+
+    private void freezeOverBudget() {
+        while (running.size() > budget) {
+            Tracked victim = running.get(0);
+            for (int i = 0, n = running.size(); i < n; i++) {
+                if (running.get(i).isHidden()) {
+                    victim = running.get(i);
+                    break;
+                }
+            }
+            int before = running.size();
+            victim.animator.end();
+            if (running.size() == before) {
+                // end() did not reach the end callback; stop tracking it anyway.
+                victim.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the auto-arrange {@link CirclePacker} on a background thread and delivers placements
+ * through the callback executor, normally the main thread. The packer keeps the current
+ * arrangement between calls, so placing new bubbles only packs those.
+ */
+class BubbleArranger {
+    interface Callback {
+        void onArranged(List<CirclePacker.Circle> placed);
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "BubbleArranger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Executor callbackExecutor;
+
+    // Only touched on the worker thread.
+    private CirclePacker packer;
+
+    BubbleArranger(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /** Packs all the circles from scratch for a field of the given size. */
+    void arrangeAll(float width, float height, List<CirclePacker.Circle> circles, Callback callback) {
+        List<CirclePacker.Circle> input = new ArrayList<>(circles);
+        worker.execute(() -> {
+            packer = new CirclePacker(width, height);
+            deliver(packer.packAll(input), callback);
+        });
+    }
+
+    /**
+     * Fits new circles around the current arrangement without moving it. If the field size
+     * changed since the last call, everything is packed again for the new size.
+     */
+    void place(float width, float height, List<CirclePacker.Circle> circles, Callback callback) {
+        List<CirclePacker.Circle> input = new ArrayList<>(circles);
+        worker.execute(() -> {
+            if (packer != null && (packer.getWidth() != width || packer.getHeight() != height)) {
+                List<CirclePacker.Circle> all = new ArrayList<>(packer.getPlaced());
+                all.addAll(input);
+                packer = new CirclePacker(width, height);
+                deliver(packer.packAll(all), callback);
+                return;
+            }
+            if (packer == null) {
+                packer = new CirclePacker(width, height);
+            }
+            List<CirclePacker.Circle> placed = new ArrayList<>(input.size());
+            for (CirclePacker.Circle circle : input) {
+                placed.add(packer.add(circle));
+            }
+            deliver(placed, callback);
+        });
+    }
+
+    void remove(long id) {
+        worker.execute(() -> {
+            if (packer != null) {
+                packer.remove(id);
+            }
+        });
+    }
+
+    /** Forgets the arrangement, e.g. when auto-arrange is turned off. */
+    void clear() {
+        worker.execute(() -> packer = null);
+    }
+
+    void close() {
+        worker.shutdown();
+    }
+
+    private void deliver(List<CirclePacker.Circle> placed, Callback callback) {
+        callbackExecutor.execute(() -> callback.onArranged(placed));
+    }
+}
@@ -0,0 +1,776 @@
+package com.example.bubbletodo;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.FloatProperty;
+import android.util.Property;
+import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The bubble field: owns one {@link Bubble} model per task and draws them all in a single
+ * {@link #onDraw} pass, instead of one view (with its own drawable, measure and layout) per
+ * bubble. The gradient shaders and paints are shared by every bubble of a category, and each
+ * bubble keeps its wrapped text layout until the text or size changes.
+ *
+ * While the field is on screen a {@link Choreographer} callback advances {@link BubblePhysics}
+ * once per frame and redraws. A new bubble is held still until {@link #release} hands it
+ * to the physics, so entrance and exit animations are not fought by it. The frame intervals
+ * feed {@link RenderQuality}, which drops the text shadow, then the gradients, then the pulse
+ * while frames are being missed.
+ *
+ * Touches are hit-tested here through a {@link SpatialGrid}: a tap or long press on a bubble
+ * goes to the {@link Listener}, holding a bubble and moving drags it, and a fling that starts
+ * on empty space is reported as a swipe along with the bubbles its path crossed.
+ */
+public class BubbleFieldView extends View {
+    private static final float GRADIENT_RADIUS = 120f;
+    private static final int STROKE_WIDTH = 3;
+    private static final int STROKE_ALPHA = 0x30;
+    private static final int TEXT_PADDING = 25;
+    private static final int TEXT_MAX_LINES = 3;
+    private static final float PRESSED_SCALE = 1.05f;
+    private static final long DRAG_DELAY_MS = 100;
+    // About the largest bubble's diameter, so most bubbles overlap at most four cells.
+    private static final float GRID_CELL_SIZE = 256f;
+    // A swipe bursts the bubbles whose center is this close to its path.
+    private static final float SWIPE_REACH = 100f;
+    // Fine enough that a free square is not much bigger than the bubble placed in it.
+    private static final float FREE_SPACE_CELL_SIZE = 20f;
+    private static final long DEFAULT_FRAME_NANOS = 1_000_000_000L / 60;
+    private static final int TEXT_SHADOW_COLOR = 0x40000000;
+
+    public interface Listener {
+        void onBubbleClick(Bubble bubble);
+
+        void onBubbleLongClick(Bubble bubble);
+
+        /**
+         * A fling that did not start on a bubble. {@code length} is the length of the whole
+         * path and {@code crossed} the visible bubbles along it, topmost last.
+         */
+        void onSwipe(float length, List<Bubble> crossed);
+    }
+
+    /** Position and appearance of one task's bubble; x and y are its center. */
+    public static class Bubble {
+        private MainActivity.BubbleTask task;
+        private float radius;
+        private float x;
+        private float y;
+        private float scale = 1f;
+        private float alpha = 1f;
+        private float rotation;
+        private boolean hidden;
+
+        // Owned by BubblePhysics.
+        int slot = -1;
+        boolean kinematic = true;
+        float pulse = 1f;
+
+        // Owned by SpatialGrid.
+        SpatialGrid grid;
+        int cellLeft;
+        int cellTop;
+        int cellRight;
+        int cellBottom;
+        int queryStamp;
+        long order;
+
+        // Owned by FreeSpaceIndex.
+        FreeSpaceIndex space;
+        boolean spaceReserved;
+        int spaceLeft;
+        int spaceTop;
+        int spaceRight;
+        int spaceBottom;
+
+        // Owned by BubbleAnimators. The bubble is only recycled once they have all ended.
+        final List<BubbleAnimators.Animation> animators = new ArrayList<>(4);
+
+        private StaticLayout textLayout;
+        private String layoutText;
+
+        Bubble(MainActivity.BubbleTask task, float radius) {
+            this.task = task;
+            this.radius = radius;
+        }
+
+        // Readies a pooled bubble for another task; the text layout stays for BubblePool.
+        void reset(MainActivity.BubbleTask task, float radius) {
+            this.task = task;
+            this.radius = radius;
+            x = 0;
+            y = 0;
+            scale = 1f;
+            alpha = 1f;
+            rotation = 0;
+            hidden = false;
+            slot = -1;
+            kinematic = true;
+            pulse = 1f;
+            grid = null;
+            queryStamp = 0;
+            space = null;
+            spaceReserved = false;
+            animators.clear();
+        }
+
+        public MainActivity.BubbleTask getTask() { return task; }
+        public long getTaskId() { return task.getTaskId(); }
+        public float getRadius() { return radius; }
+        public float getX() { return x; }
+        public float getY() { return y; }
+        public float getAlpha() { return alpha; }
+        public float getRotation() { return rotation; }
+        public boolean isHidden() { return hidden; }
+
+        public void setPosition(float x, float y) {
+            this.x = x;
+            this.y = y;
+            moved();
+        }
+
+        private void moved() {
+            if (grid != null) {
+                grid.update(this);
+            }
+            if (space != null) {
+                space.update(this);
+            }
+        }
+
+        void setHidden(boolean hidden) {
+            this.hidden = hidden;
+        }
+
+        boolean isHittable() {
+            return !hidden && alpha > 0f;
+        }
+
+        boolean contains(float px, float py) {
+            float dx = px - x;
+            float dy = py - y;
+            float r = radius * scale;
+            return dx * dx + dy * dy <= r * r;
+        }
+    }
+
+    public static final Property<Bubble, Float> X = new FloatProperty<Bubble>("x") {
+        @Override public void setValue(Bubble bubble, float value) { bubble.setPosition(value, bubble.y); }
+        @Override public Float get(Bubble bubble) { return bubble.x; }
+    };
+
+    public static final Property<Bubble, Float> Y = new FloatProperty<Bubble>("y") {
+        @Override public void setValue(Bubble bubble, float value) { bubble.setPosition(bubble.x, value); }
+        @Override public Float get(Bubble bubble) { return bubble.y; }
+    };
+
+    public static final Property<Bubble, Float> SCALE = new FloatProperty<Bubble>("scale") {
+        @Override public void setValue(Bubble bubble, float value) { bubble.scale = value; }
+        @Override public Float get(Bubble bubble) { return bubble.scale; }
+    };
+
+    public static final Property<Bubble, Float> ALPHA = new FloatProperty<Bubble>("alpha") {
+        @Override public void setValue(Bubble bubble, float value) { bubble.alpha = value; }
+        @Override public Float get(Bubble bubble) { return bubble.alpha; }
+    };
+
+    public static final Property<Bubble, Float> ROTATION = new FloatProperty<Bubble>("rotation") {
+        @Override public void setValue(Bubble bubble, float value) { bubble.rotation = value; }
+        @Override public Float get(Bubble bubble) { return bubble.rotation; }
+    };
+
+    // Draw order: later bubbles are drawn on top and hit-tested first.
+    private final List<Bubble> bubbles = new ArrayList<>();
+    private final Map<Long, Bubble> bubblesById = new HashMap<>();
+    private final SpatialGrid grid = new SpatialGrid(GRID_CELL_SIZE);
+    private final FreeSpaceIndex freeSpace = new FreeSpaceIndex(FREE_SPACE_CELL_SIZE);
+    private final float[] freeSpot = new float[3];
+    private final BubblePool pool = new BubblePool();
+    private final List<Bubble> pendingRecycle = new ArrayList<>();
+    private final Runnable recyclePending = this::recyclePending;
+    private long nextOrder;
+
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Map<MainActivity.TaskCategory, Shader> shaders = new EnumMap<>(MainActivity.TaskCategory.class);
+    private final ValueAnimator.AnimatorUpdateListener redraw = animation -> invalidate();
+
+    private final BubbleAnimators animators = new BubbleAnimators();
+    private final BubblePhysics physics = new BubblePhysics(grid);
+    private final Choreographer.FrameCallback frameCallback = this::onFrame;
+    private boolean frameScheduled;
+    private boolean onScreen;
+    private boolean paused;
+    private long lastFrameNanos;
+    private final RenderQuality quality = new RenderQuality(DEFAULT_FRAME_NANOS);
+
+    private final GestureDetector gestureDetector;
+    private final int touchSlop;
+    private Listener listener;
+    private Bubble touched;
+    private boolean dragging;
+    private float downX;
+    private float downY;
+    private float dragOffsetX;
+    private float dragOffsetY;
+    // x,y pairs of the current swipe, including the historical samples between events.
+    private float[] swipePath = new float[128];
+    private int swipePoints;
+
+    public BubbleFieldView(Context context) {
+        this(context, null);
+    }
+
+    public BubbleFieldView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        strokePaint.setStyle(Paint.Style.STROKE);
+        strokePaint.setStrokeWidth(STROKE_WIDTH);
+        strokePaint.setColor(Color.WHITE);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 11,
+                context.getResources().getDisplayMetrics()));
+        applyQuality();
+
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                if (touched != null && !dragging) {
+                    performClick();
+                    if (listener != null) {
+                        listener.onBubbleClick(touched);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void onLongPress(MotionEvent e) {
+                if (touched != null && !dragging && listener != null) {
+                    listener.onBubbleLongClick(touched);
+                }
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                if (touched == null && swipePoints > 0 && listener != null) {
+                    List<Bubble> crossed = new ArrayList<>();
+                    grid.collectNearPath(swipePath, swipePoints, SWIPE_REACH, crossed);
+                    Collections.sort(crossed, (a, b) -> Long.compare(a.order, b.order));
+                    listener.onSwipe(swipeLength(), crossed);
+                }
+                return true;
+            }
+        });
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Adds a bubble for the task, on top of the others, at the given center. */
+    public Bubble add(MainActivity.BubbleTask task, float radius) {
+        long start = Metrics.now();
+        Bubble bubble = pool.obtain(task, radius);
+        bubbles.add(bubble);
+        bubblesById.put(task.getTaskId(), bubble);
+        bubble.order = nextOrder++;
+        grid.insert(bubble);
+        freeSpace.insert(bubble);
+        physics.add(bubble);
+        scheduleFrame();
+        invalidate();
+        Metrics.BUBBLE_CREATE.recordSince(start);
+        return bubble;
+    }
+
+    public void remove(Bubble bubble) {
+        if (bubblesById.get(bubble.getTaskId()) == bubble) {
+            bubblesById.remove(bubble.getTaskId());
+            animators.cancel(bubble);
+        }
+        boolean drawn = bubbles.remove(bubble);
+        grid.remove(bubble);
+        freeSpace.remove(bubble);
+        physics.remove(bubble);
+        if (touched == bubble) {
+            touched = null;
+        }
+        if (drawn) {
+            // Waits a frame, so the animator set that removed it has finished with it too.
+            pendingRecycle.add(bubble);
+            removeCallbacks(recyclePending);
+            post(recyclePending);
+        }
+        invalidate();
+    }
+
+    /** Follows {@link android.content.ComponentCallbacks2#onTrimMemory}. */
+    public void trimMemory(int level) {
+        pool.trim(level);
+    }
+
+    /**
+     * Stops tracking the task's bubble without removing it from the screen, so an exit
+     * animation can still play; the caller removes it once the animation ends. Animations
+     * still running on it are cancelled where they are.
+     */
+    public Bubble detach(long taskId) {
+        Bubble bubble = bubblesById.remove(taskId);
+        if (bubble != null) {
+            animators.cancel(bubble);
+            grid.remove(bubble);
+            freeSpace.remove(bubble);
+            physics.remove(bubble);
+        }
+        return bubble;
+    }
+
+    /** Stops the physics from moving the bubble, e.g. while an animation moves it. */
+    public void hold(Bubble bubble) {
+        bubble.kinematic = true;
+    }
+
+    /** Hands the bubble back to the physics, which keeps it near its current height. */
+    public void release(Bubble bubble) {
+        bubble.kinematic = false;
+        freeSpace.unreserve(bubble);
+        physics.settle(bubble);
+    }
+
+    /**
+     * Picks a spot near {@code (nearX, nearY)} where the bubble does not cover the others and
+     * reserves it until {@link #release}, so bubbles entering together get different spots.
+     * When no free square fits the bubble it goes in the largest one left; returns null if
+     * the field is full, leaving the caller to choose.
+     */
+    public float[] reserveFreeSpot(Bubble bubble, float nearX, float nearY, Random random) {
+        if (!freeSpace.find(nearX, nearY, bubble.getRadius(), freeSpot)) {
+            return null;
+        }
+        float slack = freeSpot[2];
+        float x = freeSpot[0] + (2 * random.nextFloat() - 1) * slack;
+        float y = freeSpot[1] + (2 * random.nextFloat() - 1) * slack;
+        freeSpace.reserve(bubble, x, y);
+        return new float[]{x, y};
+    }
+
+    /** Follows the physics_enabled setting; while off, bubbles stay put but still pulse. */
+    public void setPhysicsEnabled(boolean enabled) {
+        physics.setEnabled(enabled);
+    }
+
+    /** Follows the 0-100 animation_speed setting. */
+    public void setAnimationSpeed(int speed) {
+        physics.setAnimationSpeed(speed);
+    }
+
+    public Bubble get(long taskId) {
+        return bubblesById.get(taskId);
+    }
+
+    /** The number of bubbles that belong to a task, not counting detached ones. */
+    public int size() {
+        return bubblesById.size();
+    }
+
+    public List<Bubble> getBubbles() {
+        return Collections.unmodifiableList(bubbles);
+    }
+
+    /** Hides the bubbles whose task is not in {@code taskIds}; null shows every bubble. */
+    public void setFilter(Set<Long> taskIds) {
+        for (Bubble bubble : bubbles) {
+            bubble.setHidden(taskIds != null && !taskIds.contains(bubble.getTaskId()));
+        }
+        invalidate();
+    }
+
+    /** Call after changing a bubble's task text or category so it is drawn again. */
+    public void refresh(Bubble bubble) {
+        bubble.textLayout = null;
+        invalidate();
+    }
+
+    /** Runs {@code action} now if the field has its size, otherwise right after its first layout. */
+    public void runWhenSized(Runnable action) {
+        if (getWidth() > 0 && getHeight() > 0) {
+            action.run();
+            return;
+        }
+        addOnLayoutChangeListener(new OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                if (right > left && bottom > top) {
+                    removeOnLayoutChangeListener(this);
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the bubbles to the x,y pairs in {@code targets} with one animator for all of them,
+     * holding them still until they arrive.
+     */
+    public ValueAnimator animateTo(List<Bubble> moving, float[] targets, long duration) {
+        int count = moving.size();
+        float[] starts = new float[2 * count];
+        for (int i = 0; i < count; i++) {
+            Bubble bubble = moving.get(i);
+            starts[2 * i] = bubble.x;
+            starts[2 * i + 1] = bubble.y;
+            hold(bubble);
+        }
+        ValueAnimator transition = ValueAnimator.ofFloat(0f, 1f);
+        transition.setDuration(duration);
+        transition.setInterpolator(new AccelerateDecelerateInterpolator());
+        transition.addUpdateListener(animation -> {
+            float t = (float) animation.getAnimatedValue();
+            for (int i = 0; i < count; i++) {
+                moving.get(i).setPosition(starts[2 * i] + (targets[2 * i] - starts[2 * i]) * t,
+                        starts[2 * i + 1] + (targets[2 * i + 1] - starts[2 * i + 1]) * t);
+            }
+            invalidate();
+        });
+        transition.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                for (int i = 0; i < count; i++) {
+                    Bubble bubble = moving.get(i);
+                    if (bubblesById.get(bubble.getTaskId()) == bubble) {
+                        release(bubble);
+                    }
+                }
+            }
+        });
+        animators.start(transition, new ArrayList<>(moving));
+        return transition;
+    }
+
+    /**
+     * Starts an animation of the bubble, built from {@link #animator}s, under the field's
+     * animation budget. Use this rather than {@code start()}, so the animation pauses with
+     * the activity and stops when the bubble's task is closed.
+     */
+    public void start(Bubble bubble, Animator animation) {
+        animators.start(animation, Collections.singletonList(bubble));
+    }
+
+    /** Caps how many bubble animations run at once; further ones jump to their end. */
+    public void setAnimationBudget(int budget) {
+        animators.setBudget(budget);
+    }
+
+    /** Call from the activity's onPause: freezes animations and the physics until resumed. */
+    public void pauseAnimations() {
+        paused = true;
+        animators.pause();
+    }
+
+    public void resumeAnimations() {
+        paused = false;
+        animators.resume();
+        scheduleFrame();
+    }
+
+    /** An animator for one bubble property that redraws the field on every frame. */
+    public ObjectAnimator animator(Bubble bubble, Property<Bubble, Float> property, float... values) {
+        ObjectAnimator animator = ObjectAnimator.ofFloat(bubble, property, values);
+        animator.addUpdateListener(redraw);
+        return animator;
+    }
+
+    /** The topmost visible bubble under the point, or null. */
+    public Bubble bubbleAt(float x, float y) {
+        return grid.topmostAt(x, y);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        for (int i = 0, n = bubbles.size(); i < n; i++) {
+            Bubble bubble = bubbles.get(i);
+            if (bubble.hidden || bubble.alpha <= 0f || bubble.scale <= 0f) {
+                continue;
+            }
+            float pulse = quality.getTier().pulses() ? bubble.pulse : 1f;
+            int alpha = Math.round(255 * Math.min(1f, bubble.alpha * pulse));
+            int save = canvas.save();
+            canvas.translate(bubble.x, bubble.y);
+            canvas.rotate(bubble.rotation);
+            canvas.scale(bubble.scale, bubble.scale);
+
+            if (quality.getTier().drawsGradients()) {
+                fillPaint.setShader(shaderFor(bubble.task.getCategory()));
+            } else {
+                fillPaint.setShader(null);
+                fillPaint.setColor(bubble.task.getCategory().getColor());
+            }
+            fillPaint.setAlpha(alpha);
+            canvas.drawCircle(0, 0, bubble.radius, fillPaint);
+            strokePaint.setAlpha(STROKE_ALPHA * alpha / 255);
+            canvas.drawCircle(0, 0, bubble.radius - STROKE_WIDTH / 2f, strokePaint);
+
+            StaticLayout layout = textLayoutFor(bubble);
+            textPaint.setAlpha(alpha);
+            canvas.translate(-layout.getWidth() / 2f, -layout.getHeight() / 2f);
+            layout.draw(canvas);
+            canvas.restoreToCount(save);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            swipePoints = 0;
+        }
+        if (touched == null) {
+            recordSwipe(event);
+        }
+        gestureDetector.onTouchEvent(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                touched = bubbleAt(event.getX(), event.getY());
+                if (touched != null) {
+                    swipePoints = 0;
+                }
+                dragging = false;
+                downX = event.getX();
+                downY = event.getY();
+                if (touched != null) {
+                    dragOffsetX = touched.x - downX;
+                    dragOffsetY = touched.y - downY;
+                    // Highlight bubble when touched
+                    touched.scale = PRESSED_SCALE;
+                    invalidate();
+                }
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                if (touched == null) {
+                    return true;
+                }
+                if (!dragging && event.getEventTime() - event.getDownTime() > DRAG_DELAY_MS
+                        && Math.hypot(event.getX() - downX, event.getY() - downY) > touchSlop) {
+                    dragging = true;
+                }
+                if (dragging) {
+                    hold(touched);
+                    // Keep bubble within the field
+                    float r = touched.radius;
+                    touched.setPosition(clamp(event.getX() + dragOffsetX, r, getWidth() - r),
+                            clamp(event.getY() + dragOffsetY, r, getHeight() - r));
+                    invalidate();
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (touched != null) {
+                    touched.scale = 1f;
+                    if (dragging) {
+                        release(touched);
+                        ObjectAnimator settle = animator(touched, ROTATION, touched.rotation, 0f);
+                        settle.setDuration(300);
+                        settle.setInterpolator(new DecelerateInterpolator());
+                        start(touched, settle);
+                    }
+                    touched = null;
+                    invalidate();
+                }
+                dragging = false;
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        physics.setBounds(w, h);
+        grid.resize(w, h, bubbles);
+        freeSpace.resize(w, h, bubbles);
+    }
+
+    private void recordSwipe(MotionEvent event) {
+        for (int h = 0, n = event.getHistorySize(); h < n; h++) {
+            addSwipePoint(event.getHistoricalX(h), event.getHistoricalY(h));
+        }
+        addSwipePoint(event.getX(), event.getY());
+    }
+
+    private void addSwipePoint(float x, float y) {
+        if (2 * swipePoints + 2 > swipePath.length) {
+            swipePath = Arrays.copyOf(swipePath, swipePath.length * 2);
+        }
+        swipePath[2 * swipePoints] = x;
+        swipePath[2 * swipePoints + 1] = y;
+        swipePoints++;
+    }
+
+    private float swipeLength() {
+        float length = 0;
+        for (int i = 1; i < swipePoints; i++) {
+            length += (float) Math.hypot(swipePath[2 * i] - swipePath[2 * i - 2],
+                    swipePath[2 * i + 1] - swipePath[2 * i - 1]);
+        }
+        return length;
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        onScreen = visibility == VISIBLE;
+        scheduleFrame();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        Display display = getDisplay();
+        if (display != null && display.getRefreshRate() > 0) {
+            quality.setFrameBudget((long) (1_000_000_000L / display.getRefreshRate()));
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        onScreen = false;
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled && onScreen && !paused && physics.size() > 0) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (!onScreen || paused || physics.size() == 0) {
+            // Stopped: the next start must not integrate the time spent off screen.
+            lastFrameNanos = 0;
+            return;
+        }
+        if (lastFrameNanos != 0) {
+            long frameNanos = frameTimeNanos - lastFrameNanos;
+            physics.advance(frameNanos / 1e9f);
+            Metrics.FRAME.record(frameNanos);
+            if (quality.onFrame(frameNanos)) {
+                Metrics.RENDER_TIER_CHANGES.increment();
+                applyQuality();
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+        invalidate();
+        scheduleFrame();
+    }
+
+    /** The current rendering tier, stepped down when frames are dropped and back up after. */
+    public RenderQuality.Tier getRenderTier() {
+        return quality.getTier();
+    }
+
+    private void applyQuality() {
+        if (quality.getTier().drawsShadows()) {
+            textPaint.setShadowLayer(8.0f, 0.0f, 4.0f, TEXT_SHADOW_COLOR);
+        } else {
+            textPaint.clearShadowLayer();
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    // A bubble still animating, e.g. removed during its entrance, is left to the collector.
+    private void recyclePending() {
+        for (int i = 0, n = pendingRecycle.size(); i < n; i++) {
+            Bubble bubble = pendingRecycle.get(i);
+            if (bubble.animators.isEmpty()) {
+                pool.recycle(bubble);
+            }
+        }
+        pendingRecycle.clear();
+    }
+
+    private StaticLayout textLayoutFor(Bubble bubble) {
+        String text = bubble.task.getText();
+        if (bubble.textLayout == null || !text.equals(bubble.layoutText)) {
+            int width = Math.max(1, Math.round(bubble.radius * 2) - 2 * TEXT_PADDING);
+            bubble.textLayout = StaticLayout.Builder.obtain(text, 0, text.length(), textPaint, width)
+                    .setAlignment(Layout.Alignment.ALIGN_CENTER)
+                    .setMaxLines(TEXT_MAX_LINES)
+                    .setEllipsize(TextUtils.TruncateAt.END)
+                    .build();
+            bubble.layoutText = text;
+        }
+        return bubble.textLayout;
+    }
+
+    // One shader per category in bubble-local coordinates, so every bubble shares it.
+    private Shader shaderFor(MainActivity.TaskCategory category) {
+        Shader shader = shaders.get(category);
+        if (shader == null) {
+            int primaryColor = category.getColor();
+            int[] gradientColors = {adjustColorBrightness(primaryColor, 0.3f), primaryColor,
+                    adjustColorBrightness(primaryColor, -0.2f)};
+            shader = new RadialGradient(0, 0, GRADIENT_RADIUS, gradientColors, null, Shader.TileMode.CLAMP);
+            shaders.put(category, shader);
+        }
+        return shader;
+    }
+
+    private static int adjustColorBrightness(int color, float factor) {
+        int r = Math.round((Color.red(color) * (1 + factor)));
+        int g = Math.round((Color.green(color) * (1 + factor)));
+        int b = Math.round((Color.blue(color) * (1 + factor)));
+
+        r = Math.max(0, Math.min(255, r));
+        g = Math.max(0, Math.min(255, g));
+        b = Math.max(0, Math.min(255, b));
+
+        return Color.rgb(r, g, b);
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(value, Math.max(min, max)));
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Moves the bubbles of a {@link BubbleFieldView}: each bubble is buoyed toward its resting
+ * height, drifts sideways, pushes softly against overlapping bubbles and bounces off the
+ * walls. State lives in parallel arrays indexed by body slot and the simulation advances in
+ * fixed steps, so {@link #advance} allocates nothing however many bubbles there are.
+ *
+ * A bubble that an animation or a drag is moving is kinematic: it pushes the others but is
+ * not moved itself. Collisions are only checked between bubbles that share a cell of the
+ * field's {@link SpatialGrid}, so every body must also be in that grid. Not thread-safe; the
+ * field calls it on the main thread.
+ */
+class BubblePhysics {
+    static final float STEP_SECONDS = 1f / 120f;
+    // Bounds the catch-up work after a long frame; the rest of the backlog is dropped.
+    private static final int MAX_STEPS_PER_ADVANCE = 8;
+
+    private static final float BUOYANCY = 6f;
+    private static final float DRIFT_ACCELERATION = 40f;
+    private static final float DAMPING = 1.5f;
+    private static final float COLLISION_STIFFNESS = 60f;
+    private static final float WALL_RESTITUTION = 0.6f;
+    private static final float MAX_SPEED = 600f;
+    private static final float PULSE_DEPTH = 0.3f;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final SpatialGrid grid;
+    private final List<BubbleFieldView.Bubble> neighbours = new ArrayList<>();
+    private BubbleFieldView.Bubble[] bodies = new BubbleFieldView.Bubble[16];
+    private float[] vx = new float[16];
+    private float[] vy = new float[16];
+    private float[] restY = new float[16];
+    private float[] driftPhase = new float[16];
+    private float[] driftRate = new float[16];
+    private float[] pulsePhase = new float[16];
+    private float[] pulseRate = new float[16];
+    private int count;
+
+    private boolean enabled = true;
+    private float timeScale = 1f;
+    private float accumulator;
+    private float width;
+    private float height;
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    BubblePhysics(SpatialGrid grid) {
+        this.grid = grid;
+    }
+
+    void add(BubbleFieldView.Bubble bubble) {
+        if (count == bodies.length) {
+            grow();
+        }
+        int slot = count++;
+        bodies[slot] = bubble;
+        bubble.slot = slot;
+        vx[slot] = 0;
+        vy[slot] = 0;
+        restY[slot] = bubble.getY();
+        driftPhase[slot] = (float) (nextRandom() * TWO_PI);
+        // Drift and pulse periods vary per bubble so they do not move in lockstep.
+        driftRate[slot] = (float) (TWO_PI / (4 + 4 * nextRandom()));
+        pulsePhase[slot] = 0;
+        pulseRate[slot] = (float) (TWO_PI / (3 + 2 * nextRandom()));
+    }
+
+    void remove(BubbleFieldView.Bubble bubble) {
+        int slot = bubble.slot;
+        if (slot < 0 || slot >= count || bodies[slot] != bubble) {
+            return;
+        }
+        int last = --count;
+        if (slot != last) {
+            bodies[slot] = bodies[last];
+            bodies[slot].slot = slot;
+            vx[slot] = vx[last];
+            vy[slot] = vy[last];
+            restY[slot] = restY[last];
+            driftPhase[slot] = driftPhase[last];
+            driftRate[slot] = driftRate[last];
+            pulsePhase[slot] = pulsePhase[last];
+            pulseRate[slot] = pulseRate[last];
+        }
+        bodies[last] = null;
+        bubble.slot = -1;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void setBounds(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /** While disabled, bubbles stay where they are; they still pulse. */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            for (int i = 0; i < count; i++) {
+                vx[i] = 0;
+                vy[i] = 0;
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Maps the 0-100 animation speed setting to a time scale of 0.5x to 2x. */
+    void setAnimationSpeed(int speed) {
+        timeScale = 0.5f + 1.5f * Math.max(0, Math.min(100, speed)) / 100f;
+    }
+
+    /** Makes the bubble's current height the one it is buoyed toward, e.g. after a drag. */
+    void settle(BubbleFieldView.Bubble bubble) {
+        int slot = bubble.slot;
+        if (slot >= 0 && slot < count && bodies[slot] == bubble) {
+            restY[slot] = bubble.getY();
+            vx[slot] = 0;
+            vy[slot] = 0;
+        }
+    }
+
+    /** Runs as many fixed steps as {@code elapsedSeconds} of scaled time covers. */
+    void advance(float elapsedSeconds) {
+        accumulator += Math.min(elapsedSeconds, STEP_SECONDS * MAX_STEPS_PER_ADVANCE) * timeScale;
+        while (accumulator >= STEP_SECONDS) {
+            step(STEP_SECONDS);
+            accumulator -= STEP_SECONDS;
+        }
+    }
+
+    private void step(float dt) {
+        for (int i = 0; i < count; i++) {
+            float phase = pulsePhase[i] + pulseRate[i] * dt;
+            pulsePhase[i] = phase > TWO_PI ? (float) (phase - TWO_PI) : phase;
+            bodies[i].pulse = 1f - PULSE_DEPTH * 0.5f * (1f - (float) Math.cos(pulsePhase[i]));
+        }
+        if (!enabled) {
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            BubbleFieldView.Bubble body = bodies[i];
+            if (body.kinematic) {
+                continue;
+            }
+            float phase = driftPhase[i] + driftRate[i] * dt;
+            driftPhase[i] = phase > TWO_PI ? (float) (phase - TWO_PI) : phase;
+
+            float ax = DRIFT_ACCELERATION * (float) Math.sin(driftPhase[i]);
+            float ay = BUOYANCY * (restY[i] - body.getY()) + 0.5f * DRIFT_ACCELERATION * (float) Math.cos(driftPhase[i]);
+            ax -= DAMPING * vx[i];
+            ay -= DAMPING * vy[i];
+            vx[i] += ax * dt;
+            vy[i] += ay * dt;
+        }
+
+        collide(dt);
+
+        for (int i = 0; i < count; i++) {
+            BubbleFieldView.Bubble body = bodies[i];
+            if (body.kinematic) {
+                continue;
+            }
+            vx[i] = clamp(vx[i], -MAX_SPEED, MAX_SPEED);
+            vy[i] = clamp(vy[i], -MAX_SPEED, MAX_SPEED);
+            float x = body.getX() + vx[i] * dt;
+            float y = body.getY() + vy[i] * dt;
+            float r = body.getRadius();
+            if (width > 2 * r) {
+                if (x < r) {
+                    x = r;
+                    vx[i] = -vx[i] * WALL_RESTITUTION;
+                } else if (x > width - r) {
+                    x = width - r;
+                    vx[i] = -vx[i] * WALL_RESTITUTION;
+                }
+            }
+            if (height > 2 * r) {
+                if (y < r) {
+                    y = r;
+                    vy[i] = -vy[i] * WALL_RESTITUTION;
+                } else if (y > height - r) {
+                    y = height - r;
+                    vy[i] = -vy[i] * WALL_RESTITUTION;
+                }
+            }
+            body.setPosition(x, y);
+        }
+    }
+
+    // Overlapping pairs push apart in proportion to the overlap, a spring rather than an
+    // impulse, so dense clusters spread out smoothly instead of jittering. Each pair is
+    // handled once, from the body in the lower slot.
+    private void collide(float dt) {
+        for (int i = 0; i < count; i++) {
+            BubbleFieldView.Bubble a = bodies[i];
+            if (a.grid != grid) {
+                continue;
+            }
+            neighbours.clear();
+            grid.collectNeighbours(a, neighbours);
+            for (int k = 0, n = neighbours.size(); k < n; k++) {
+                BubbleFieldView.Bubble b = neighbours.get(k);
+                int j = b.slot;
+                if (j <= i || j >= count || bodies[j] != b || (a.kinematic && b.kinematic)) {
+                    continue;
+                }
+                float dx = b.getX() - a.getX();
+                float dy = b.getY() - a.getY();
+                float minDistance = a.getRadius() + b.getRadius();
+                float distanceSq = dx * dx + dy * dy;
+                if (distanceSq >= minDistance * minDistance) {
+                    continue;
+                }
+                float distance = (float) Math.sqrt(distanceSq);
+                float nx;
+                float ny;
+                if (distance > 1e-3f) {
+                    nx = dx / distance;
+                    ny = dy / distance;
+                } else {
+                    nx = 1f;
+                    ny = 0f;
+                }
+                float impulse = COLLISION_STIFFNESS * (minDistance - distance) * dt;
+                if (a.kinematic) {
+                    vx[j] += nx * impulse;
+                    vy[j] += ny * impulse;
+                } else if (b.kinematic) {
+                    vx[i] -= nx * impulse;
+                    vy[i] -= ny * impulse;
+                } else {
+                    vx[i] -= nx * impulse * 0.5f;
+                    vy[i] -= ny * impulse * 0.5f;
+                    vx[j] += nx * impulse * 0.5f;
+                    vy[j] += ny * impulse * 0.5f;
+                }
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = bodies.length * 2;
+        bodies = Arrays.copyOf(bodies, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        restY = Arrays.copyOf(restY, capacity);
+        driftPhase = Arrays.copyOf(driftPhase, capacity);
+        driftRate = Arrays.copyOf(driftRate, capacity);
+        pulsePhase = Arrays.copyOf(pulsePhase, capacity);
+        pulseRate = Arrays.copyOf(pulseRate, capacity);
+    }
+
+    // xorshift, so adding a bubble does not allocate a Random either.
+    private double nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 11) * 0x1.0p-53;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
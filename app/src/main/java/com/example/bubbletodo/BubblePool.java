@@ -0,0 +1,85 @@
+package com.example.bubbletodo;
+
+import android.content.ComponentCallbacks2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps removed bubbles for reuse, so bursting and re-adding tasks does not allocate a new
+ * bubble and text layout each time. Bubbles are kept by diameter: a reused bubble has the same
+ * text width, so its cached layout is still good when the text is the same too, as after an
+ * undo. Not thread-safe; main thread only.
+ */
+class BubblePool {
+    static final int MAX_PER_SIZE = 8;
+    static final int MAX_POOLED = 48;
+
+    private final Map<Integer, List<BubbleFieldView.Bubble>> bySize = new HashMap<>();
+    private int pooled;
+    private int created;
+    private int reused;
+
+    /** A reset bubble for the task, from the pool if one of the same size is free. */
+    BubbleFieldView.Bubble obtain(MainActivity.BubbleTask task, float radius) {
+        List<BubbleFieldView.Bubble> free = bySize.get(sizeKey(radius));
+        if (free != null && !free.isEmpty()) {
+            BubbleFieldView.Bubble bubble = free.remove(free.size() - 1);
+            pooled--;
+            reused++;
+            bubble.reset(task, radius);
+            return bubble;
+        }
+        created++;
+        return new BubbleFieldView.Bubble(task, radius);
+    }
+
+    /** Takes back a bubble that is no longer drawn or animated; dropped if the pool is full. */
+    void recycle(BubbleFieldView.Bubble bubble) {
+        if (pooled >= MAX_POOLED) {
+            return;
+        }
+        int key = sizeKey(bubble.getRadius());
+        List<BubbleFieldView.Bubble> free = bySize.get(key);
+        if (free == null) {
+            free = new ArrayList<>(MAX_PER_SIZE);
+            bySize.put(key, free);
+        }
+        if (free.size() < MAX_PER_SIZE) {
+            free.add(bubble);
+            pooled++;
+        }
+    }
+
+    /** Follows {@link ComponentCallbacks2#onTrimMemory}: halves the pool, or empties it when memory runs low. */
+    void trim(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            bySize.clear();
+            pooled = 0;
+            return;
+        }
+        for (List<BubbleFieldView.Bubble> free : bySize.values()) {
+            int keep = free.size() / 2;
+            pooled -= free.size() - keep;
+            free.subList(keep, free.size()).clear();
+        }
+    }
+
+    int size() {
+        return pooled;
+    }
+
+    int getCreatedCount() {
+        return created;
+    }
+
+    int getReusedCount() {
+        return reused;
+    }
+
+    private static int sizeKey(float radius) {
+        return Math.round(radius * 2);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs bubbles into the field without overlap, one cluster per {@link MainActivity.TaskCategory}
+ * around that category's anchor point. Each circle is placed greedily at the free spot closest
+ * to its anchor, touching a circle already placed, so adding one circle never moves the
+ * others and costs O(n^2) in the worst case rather than a full re-pack.
+ *
+ * Not thread-safe; {@link BubbleArranger} uses it from its worker thread.
+ */
+class CirclePacker {
+    private static final float GAP = 6f;
+    private static final int CANDIDATE_ANGLES = 16;
+
+    /** A circle to place, or a placed circle; x and y are its center. */
+    static final class Circle {
+        final long id;
+        final MainActivity.TaskCategory category;
+        final float radius;
+        final float x;
+        final float y;
+
+        Circle(long id, MainActivity.TaskCategory category, float radius) {
+            this(id, category, radius, 0, 0);
+        }
+
+        Circle(long id, MainActivity.TaskCategory category, float radius, float x, float y) {
+            this.id = id;
+            this.category = category;
+            this.radius = radius;
+            this.x = x;
+            this.y = y;
+        }
+
+        Circle at(float x, float y) {
+            return new Circle(id, category, radius, x, y);
+        }
+    }
+
+    private final float width;
+    private final float height;
+    private final Map<Long, Circle> placed = new LinkedHashMap<>();
+
+    CirclePacker(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    float getWidth() { return width; }
+    float getHeight() { return height; }
+
+    Collection<Circle> getPlaced() {
+        return Collections.unmodifiableCollection(placed.values());
+    }
+
+    /**
+     * Discards the current packing and packs all the circles from scratch, largest first
+     * within each category. Returns them placed, in the order given.
+     */
+    List<Circle> packAll(List<Circle> circles) {
+        placed.clear();
+        List<Circle> order = new ArrayList<>(circles);
+        Collections.sort(order, (a, b) -> {
+            int byCategory = a.category.compareTo(b.category);
+            return byCategory != 0 ? byCategory : Float.compare(b.radius, a.radius);
+        });
+        for (Circle circle : order) {
+            add(circle);
+        }
+        List<Circle> result = new ArrayList<>(circles.size());
+        for (Circle circle : circles) {
+            result.add(placed.get(circle.id));
+        }
+        return result;
+    }
+
+    /** Places one circle around the existing ones, replacing any circle with the same ID. */
+    Circle add(Circle circle) {
+        placed.remove(circle.id);
+        float[] anchor = anchorOf(circle.category);
+        float bestX = clampX(anchor[0], circle.radius);
+        float bestY = clampY(anchor[1], circle.radius);
+        boolean found = fits(bestX, bestY, circle.radius);
+        float bestDistance = found ? distanceSq(bestX, bestY, anchor) : Float.MAX_VALUE;
+
+        if (!found) {
+            for (Circle other : placed.values()) {
+                float reach = other.radius + circle.radius + GAP;
+                for (int a = 0; a < CANDIDATE_ANGLES; a++) {
+                    double angle = 2 * Math.PI * a / CANDIDATE_ANGLES;
+                    float x = other.x + reach * (float) Math.cos(angle);
+                    float y = other.y + reach * (float) Math.sin(angle);
+                    float distance = distanceSq(x, y, anchor);
+                    if (distance < bestDistance && inBounds(x, y, circle.radius) && fits(x, y, circle.radius)) {
+                        bestX = x;
+                        bestY = y;
+                        bestDistance = distance;
+                        found = true;
+                    }
+                }
+            }
+        }
+        // A full field has no free spot; the circle then overlaps at its anchor.
+        Circle result = circle.at(bestX, bestY);
+        placed.put(circle.id, result);
+        return result;
+    }
+
+    void remove(long id) {
+        placed.remove(id);
+    }
+
+    private boolean fits(float x, float y, float radius) {
+        for (Circle other : placed.values()) {
+            float minDistance = other.radius + radius + GAP;
+            float dx = other.x - x;
+            float dy = other.y - y;
+            if (dx * dx + dy * dy < minDistance * minDistance - 0.01f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean inBounds(float x, float y, float radius) {
+        return x >= radius && x <= width - radius && y >= radius && y <= height - radius;
+    }
+
+    private float clampX(float x, float radius) {
+        return Math.max(radius, Math.min(x, width - radius));
+    }
+
+    private float clampY(float y, float radius) {
+        return Math.max(radius, Math.min(y, height - radius));
+    }
+
+    // Categories get the cells of a near-square grid over the field, in declaration order.
+    private float[] anchorOf(MainActivity.TaskCategory category) {
+        int count = MainActivity.TaskCategory.values().length;
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        int rows = (count + columns - 1) / columns;
+        int index = category.ordinal();
+        return new float[]{
+                (index % columns + 0.5f) * width / columns,
+                (index / columns + 0.5f) * height / rows};
+    }
+
+    private static float distanceSq(float x, float y, float[] point) {
+        float dx = x - point[0];
+        float dy = y - point[1];
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.bubbletodo;
+
+import java.util.List;
+
+/**
+ * Tracks which parts of the bubble field are free so a new bubble can be placed where it
+ * does not cover others. The field is divided into small square cells that count the bubbles
+ * whose bounds cover them. Above the cells sits a pyramid of aligned square blocks; each block
+ * records the largest empty aligned square inside it. Finding a free square of a given size
+ * near a point therefore walks one root-to-leaf path, O(log n) in the number of cells.
+ *
+ * Bubbles report their moves through {@link BubbleFieldView.Bubble}; only the cells a bubble
+ * enters or leaves are updated. An entering bubble can reserve its target instead, so bubbles
+ * placed in the same batch do not all pick the same slot. Until the first {@link #resize} the
+ * field has no size: bubbles are only registered, and are counted once it is sized. Not
+ * thread-safe; main thread only.
+ */
+class FreeSpaceIndex {
+    private final float cellSize;
+    private int columns;
+    private int rows;
+    // The pyramid is square with a power-of-two side; cells beyond the field count as taken.
+    private int side;
+    private int levels;
+    private int[] coverCount = new int[0];
+    // free[level][block]: 1 + the level of the largest empty aligned square in the block,
+    // or 0 if every cell in it is covered.
+    private byte[][] free = new byte[0][];
+
+    FreeSpaceIndex(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /** Rebuilds the index for a field of the new size from the bubbles' current bounds. */
+    void resize(float width, float height, List<BubbleFieldView.Bubble> bubbles) {
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        side = Integer.highestOneBit(Math.max(columns, rows) - 1) << 1;
+        side = Math.max(1, side);
+        levels = Integer.numberOfTrailingZeros(side) + 1;
+        coverCount = new int[side * side];
+        free = new byte[levels][];
+        for (int level = 0; level < levels; level++) {
+            int blocks = side >> level;
+            free[level] = new byte[blocks * blocks];
+        }
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                if (x >= columns || y >= rows) {
+                    coverCount[y * side + x] = 1;
+                }
+            }
+        }
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                free[0][y * side + x] = (byte) (coverCount[y * side + x] == 0 ? 1 : 0);
+            }
+        }
+        for (int level = 1; level < levels; level++) {
+            int blocks = side >> level;
+            for (int y = 0; y < blocks; y++) {
+                for (int x = 0; x < blocks; x++) {
+                    recompute(level, x, y);
+                }
+            }
+        }
+        for (int i = 0, n = bubbles.size(); i < n; i++) {
+            BubbleFieldView.Bubble bubble = bubbles.get(i);
+            if (bubble.space == this) {
+                if (bubble.spaceReserved) {
+                    bubble.spaceLeft = Math.min(bubble.spaceLeft, columns - 1);
+                    bubble.spaceTop = Math.min(bubble.spaceTop, rows - 1);
+                    bubble.spaceRight = Math.min(bubble.spaceRight, columns - 1);
+                    bubble.spaceBottom = Math.min(bubble.spaceBottom, rows - 1);
+                } else {
+                    setBounds(bubble, bubble.getX(), bubble.getY());
+                }
+                cover(bubble.spaceLeft, bubble.spaceTop, bubble.spaceRight, bubble.spaceBottom, 1);
+            }
+        }
+    }
+
+    void insert(BubbleFieldView.Bubble bubble) {
+        bubble.space = this;
+        bubble.spaceReserved = false;
+        if (!isSized()) {
+            return;
+        }
+        setBounds(bubble, bubble.getX(), bubble.getY());
+        cover(bubble.spaceLeft, bubble.spaceTop, bubble.spaceRight, bubble.spaceBottom, 1);
+    }
+
+    void remove(BubbleFieldView.Bubble bubble) {
+        if (bubble.space != this) {
+            return;
+        }
+        if (isSized()) {
+            cover(bubble.spaceLeft, bubble.spaceTop, bubble.spaceRight, bubble.spaceBottom, -1);
+        }
+        bubble.space = null;
+    }
+
+    /** Called after the bubble moved; ignored while it holds a reservation. */
+    void update(BubbleFieldView.Bubble bubble) {
+        if (isSized() && !bubble.spaceReserved) {
+            moveTo(bubble, bubble.getX(), bubble.getY());
+        }
+    }
+
+    /** Marks the space around {@code (x, y)} as the bubble's until {@link #unreserve}. */
+    void reserve(BubbleFieldView.Bubble bubble, float x, float y) {
+        if (bubble.space == this && isSized()) {
+            moveTo(bubble, x, y);
+            bubble.spaceReserved = true;
+        }
+    }
+
+    /** Makes the bubble's actual position count again. */
+    void unreserve(BubbleFieldView.Bubble bubble) {
+        if (bubble.space == this && bubble.spaceReserved) {
+            bubble.spaceReserved = false;
+            update(bubble);
+        }
+    }
+
+    /**
+     * Finds a free square near {@code (nearX, nearY)} big enough for a circle of the given
+     * radius, or if there is none the largest free square there is. Writes its center and the
+     * slack (how far the circle can move off center and stay inside) to {@code out}. Returns
+     * false when every cell is covered.
+     */
+    boolean find(float nearX, float nearY, float radius, float[] out) {
+        int rootFree = levels > 0 ? free[levels - 1][0] : 0;
+        if (rootFree == 0) {
+            return false;
+        }
+        int needed = 0;
+        while (needed < levels - 1 && cellSize * (1 << needed) < 2 * radius) {
+            needed++;
+        }
+        int target = Math.min(needed, rootFree - 1);
+
+        // Descend toward the point through blocks that still contain a free square of the
+        // target level.
+        int bx = 0;
+        int by = 0;
+        for (int level = levels - 1; level > target; level--) {
+            int childLevel = level - 1;
+            int childBlocks = side >> childLevel;
+            float childSize = cellSize * (1 << childLevel);
+            float bestDistance = Float.MAX_VALUE;
+            int bestX = -1;
+            int bestY = -1;
+            for (int dy = 0; dy < 2; dy++) {
+                for (int dx = 0; dx < 2; dx++) {
+                    int cx = 2 * bx + dx;
+                    int cy = 2 * by + dy;
+                    if (free[childLevel][cy * childBlocks + cx] <= target) {
+                        continue;
+                    }
+                    float distance = distanceToBlock(nearX, nearY, cx * childSize, cy * childSize, childSize);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        bestX = cx;
+                        bestY = cy;
+                    }
+                }
+            }
+            bx = bestX;
+            by = bestY;
+        }
+
+        float blockSize = cellSize * (1 << target);
+        out[0] = (bx + 0.5f) * blockSize;
+        out[1] = (by + 0.5f) * blockSize;
+        out[2] = Math.max(0, blockSize / 2 - radius);
+        return true;
+    }
+
+    private boolean isSized() {
+        return levels > 0;
+    }
+
+    private void moveTo(BubbleFieldView.Bubble bubble, float x, float y) {
+        int oldLeft = bubble.spaceLeft;
+        int oldTop = bubble.spaceTop;
+        int oldRight = bubble.spaceRight;
+        int oldBottom = bubble.spaceBottom;
+        setBounds(bubble, x, y);
+        if (oldLeft == bubble.spaceLeft && oldTop == bubble.spaceTop
+                && oldRight == bubble.spaceRight && oldBottom == bubble.spaceBottom) {
+            return;
+        }
+        // Only the cells that changed side are touched.
+        int top = Math.min(oldTop, bubble.spaceTop);
+        int bottom = Math.max(oldBottom, bubble.spaceBottom);
+        int left = Math.min(oldLeft, bubble.spaceLeft);
+        int right = Math.max(oldRight, bubble.spaceRight);
+        for (int cy = top; cy <= bottom; cy++) {
+            for (int cx = left; cx <= right; cx++) {
+                boolean wasCovered = cx >= oldLeft && cx <= oldRight && cy >= oldTop && cy <= oldBottom;
+                boolean isCovered = cx >= bubble.spaceLeft && cx <= bubble.spaceRight
+                        && cy >= bubble.spaceTop && cy <= bubble.spaceBottom;
+                if (wasCovered != isCovered) {
+                    coverCell(cx, cy, isCovered ? 1 : -1);
+                }
+            }
+        }
+    }
+
+    private void setBounds(BubbleFieldView.Bubble bubble, float x, float y) {
+        float r = bubble.getRadius();
+        bubble.spaceLeft = cell(x - r, columns);
+        bubble.spaceTop = cell(y - r, rows);
+        bubble.spaceRight = cell(x + r, columns);
+        bubble.spaceBottom = cell(y + r, rows);
+    }
+
+    private void cover(int left, int top, int right, int bottom, int delta) {
+        for (int cy = top; cy <= bottom; cy++) {
+            for (int cx = left; cx <= right; cx++) {
+                coverCell(cx, cy, delta);
+            }
+        }
+    }
+
+    private void coverCell(int cx, int cy, int delta) {
+        int index = cy * side + cx;
+        boolean wasFree = coverCount[index] == 0;
+        coverCount[index] += delta;
+        if (wasFree == (coverCount[index] == 0)) {
+            return;
+        }
+        free[0][index] = (byte) (coverCount[index] == 0 ? 1 : 0);
+        for (int level = 1; level < levels; level++) {
+            if (!recompute(level, cx >> level, cy >> level)) {
+                break;
+            }
+        }
+    }
+
+    // Returns whether the block's value changed, so callers can stop walking up early.
+    private boolean recompute(int level, int x, int y) {
+        int childLevel = level - 1;
+        int childBlocks = side >> childLevel;
+        byte[] children = free[childLevel];
+        int a = children[(2 * y) * childBlocks + 2 * x];
+        int b = children[(2 * y) * childBlocks + 2 * x + 1];
+        int c = children[(2 * y + 1) * childBlocks + 2 * x];
+        int d = children[(2 * y + 1) * childBlocks + 2 * x + 1];
+        int whole = level;
+        byte value = (byte) (a == whole && b == whole && c == whole && d == whole
+                ? level + 1 : Math.max(Math.max(a, b), Math.max(c, d)));
+        int index = y * (side >> level) + x;
+        if (free[level][index] == value) {
+            return false;
+        }
+        free[level][index] = value;
+        return true;
+    }
+
+    private int cell(float position, int count) {
+        return Math.max(0, Math.min(count - 1, (int) Math.floor(position / cellSize)));
+    }
+
+    private static float distanceToBlock(float x, float y, float left, float top, float size) {
+        float dx = Math.max(0, Math.max(left - x, x - (left + size)));
+        float dy = Math.max(0, Math.max(top - y, y - (top + size)));
+        return dx * dx + dy * dy;
+    }
+}
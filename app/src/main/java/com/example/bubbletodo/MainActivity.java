@@ -4,19 +4,22 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
+import android.Manifest;
 import android.annotation.SuppressLint;
 import android.app.AlertDialog;
+import android.app.DatePickerDialog;
+import android.app.TimePickerDialog;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
-import android.graphics.drawable.GradientDrawable;
+import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
 import android.os.Vibrator;
-import android.view.GestureDetector;
-import android.view.MotionEvent;
-import android.view.View;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.BounceInterpolator;
 import android.view.animation.DecelerateInterpolator;
@@ -29,24 +32,42 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.bubbletodo.SoundManager;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 public class MainActivity extends AppCompatActivity {
 
-    private RelativeLayout bubbleContainer;
+    private BubbleFieldView bubbleField;
     private FloatingActionButton fabAdd;
-    private List<BubbleTask> bubbleTasks;
     private Random random;
     private Vibrator vibrator;
-    private GestureDetector gestureDetector;
     private ImageView btnSettings;
+    private EditText searchBox;
     private SoundManager soundManager ;
+    private TaskManager taskManager;
+    private BubbleArranger arranger;
+    private boolean autoArrange;
+    private final TaskManager.ChangeListener taskChangeListener = this::applyTaskChanges;
+    private final Runnable searchFilter = this::applySearchFilter;
 
     // Settings integration
-    private static final int SETTINGS_REQUEST_CODE = 1001;
+    private SettingsStore settings;
+    private int appliedTheme = -1;
+    private final SettingsStore.Listener settingsListener = this::applySettings;
+    private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 1002;
+    private static final long ENTRANCE_STAGGER_MS = 40;
+    private static final long ARRANGE_DURATION_MS = 800;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    // Cleared with the other data, so the samples come back only after "Clear All Data".
+    private static final String KEY_SAMPLES_ADDED = "samples_added";
     private long sessionStartTime;
 
     // Task categories with their colors and transparency
@@ -79,68 +100,183 @@ public class MainActivity extends AppCompatActivity {
         sessionStartTime = System.currentTimeMillis();
 
         initializeViews();
-        setupGestureDetector();
-        bubbleTasks = new ArrayList<>();
         random = new Random();
         vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
 
         soundManager = SoundManager.getInstance(this);
-
-        applyTheme();
-        addSampleBubbles();
+        taskManager = TaskManager.getInstance(this);
+        taskManager.addChangeListener(taskChangeListener);
+        arranger = new BubbleArranger(this::runOnUiThread);
+
+        settings = SettingsStore.getInstance(this);
+        settings.addListener(settingsListener);
+        applySettings(settings.get());
+        restoreBubbles();
+    }
+
+    // Shows the saved open tasks, or the sample bubbles on first launch.
+    private void restoreBubbles() {
+        taskManager.whenLoaded(snapshot -> {
+            SharedPreferences prefs = getSharedPreferences(SettingsStore.PREFS_NAME, MODE_PRIVATE);
+            if (!prefs.getBoolean(KEY_SAMPLES_ADDED, false)) {
+                prefs.edit().putBoolean(KEY_SAMPLES_ADDED, true).apply();
+                if (snapshot.isEmpty()) {
+                    addSampleBubbles();
+                    return;
+                }
+            }
+            int maxBubbles = settings.get().getMaxBubbles();
+            List<BubbleTask> openTasks = new ArrayList<>();
+            for (TaskManager.EnhancedBubbleTask task : snapshot.getAll()) {
+                if (openTasks.size() >= maxBubbles) {
+                    break;
+                }
+                if (!task.isCompleted() && bubbleField.get(task.getId()) == null) {
+                    openTasks.add(new BubbleTask(task));
+                }
+            }
+            showBubbles(openTasks);
+        });
     }
 
     private void initializeViews() {
-        bubbleContainer = findViewById(R.id.bubbleContainer);
+        bubbleField = findViewById(R.id.bubbleField);
         fabAdd = findViewById(R.id.fabAdd);
         btnSettings = findViewById(R.id.btnSettings);
+        searchBox = findViewById(R.id.searchBox);
 
         fabAdd.setOnClickListener(v -> showAddTaskDialog());
         btnSettings.setOnClickListener(v -> openSettings());
+        bubbleField.setListener(new BubbleFieldView.Listener() {
+            @Override
+            public void onBubbleClick(BubbleFieldView.Bubble bubble) {
+                showTaskDetails(bubble);
+            }
+
+            @Override
+            public void onBubbleLongClick(BubbleFieldView.Bubble bubble) {
+                vibrateIfEnabled(50);
+                showTaskOptions(bubble);
+            }
+
+            @Override
+            public void onSwipe(float length, List<BubbleFieldView.Bubble> crossed) {
+                if (length > 200) {
+                    triggerBurstMode(crossed);
+                }
+            }
+        });
+        searchBox.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                // Searches once typing pauses rather than on every keystroke; clearing the
+                // box needs no search, so it shows every bubble at once.
+                searchBox.removeCallbacks(searchFilter);
+                if (s.toString().trim().isEmpty()) {
+                    applySearchFilter();
+                } else {
+                    searchBox.postDelayed(searchFilter, SEARCH_DEBOUNCE_MS);
+                }
+            }
+        });
+    }
+
+    // Hides the bubbles whose task does not match the search box; an empty box shows all.
+    private void applySearchFilter() {
+        String query = searchBox.getText().toString().trim();
+        Set<Long> matches = null;
+        if (!query.isEmpty()) {
+            matches = new HashSet<>();
+            for (TaskManager.EnhancedBubbleTask task : taskManager.search(query)) {
+                matches.add(task.getId());
+            }
+        }
+        bubbleField.setFilter(matches);
     }
 
     private void openSettings() {
         Intent intent = new Intent(this, SettingsActivity.class);
-        startActivityForResult(intent, SETTINGS_REQUEST_CODE);
+        startActivity(intent);
     }
 
-    @Override
-    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
-        super.onActivityResult(requestCode, resultCode, data);
+    // Called for every change while the settings screen is open, e.g. each step of a seek
+    // bar drag, so this stays cheap.
+    private void applySettings(SettingsStore.Settings current) {
+        soundManager.setSoundEnabled(current.isSoundEnabled());
+        applySettingsToExistingBubbles(current);
+        applyTheme(current);
+    }
 
-        if (requestCode == SETTINGS_REQUEST_CODE && resultCode == RESULT_OK) {
-            if (data != null && data.getBooleanExtra("settings_changed", false)) {
-                applySettingsToExistingBubbles();
-                applyTheme();
-            }
+    // The physics engine reads these on every frame, so running bubbles pick them up at once.
+    // Turning auto-arrange on packs the bubbles already on screen.
+    private void applySettingsToExistingBubbles(SettingsStore.Settings current) {
+        bubbleField.setPhysicsEnabled(current.isPhysicsEnabled());
+        bubbleField.setAnimationSpeed(current.getAnimationSpeed());
+
+        boolean arrange = current.isAutoArrangeEnabled();
+        if (arrange && !autoArrange) {
+            arrangeAllBubbles();
+        } else if (!arrange && autoArrange) {
+            arranger.clear();
         }
+        autoArrange = arrange;
     }
 
-    private void applySettingsToExistingBubbles() {
-        boolean physicsEnabled = SettingsActivity.isPhysicsEnabled(this);
-
-        for (int i = 0; i < bubbleContainer.getChildCount(); i++) {
-            View child = bubbleContainer.getChildAt(i);
-            if (child.getTag() instanceof BubbleTask) {
-                if (physicsEnabled) {
-                    if (child.getTag(R.id.float_animator) == null) {
-                        startFloatingAnimation(child);
-                    }
-                } else {
-                    ObjectAnimator floatAnimator = (ObjectAnimator) child.getTag(R.id.float_animator);
-                    if (floatAnimator != null) {
-                        floatAnimator.cancel();
-                        child.setTag(R.id.float_animator, null);
-                    }
+    private void arrangeAllBubbles() {
+        bubbleField.runWhenSized(() -> {
+            List<CirclePacker.Circle> circles = new ArrayList<>();
+            for (BubbleFieldView.Bubble bubble : bubbleField.getBubbles()) {
+                if (bubbleField.get(bubble.getTaskId()) == bubble) {
+                    circles.add(circleOf(bubble));
                 }
             }
+            arranger.arrangeAll(bubbleField.getWidth(), bubbleField.getHeight(), circles,
+                    placed -> applyArrangement(placed, Collections.emptySet()));
+        });
+    }
+
+    private static CirclePacker.Circle circleOf(BubbleFieldView.Bubble bubble) {
+        return new CirclePacker.Circle(bubble.getTaskId(), bubble.getTask().getCategory(), bubble.getRadius());
+    }
+
+    // Bubbles still entering flow straight to their spot; the others move there together in
+    // one transition.
+    private void applyArrangement(List<CirclePacker.Circle> placed, Set<BubbleFieldView.Bubble> entering) {
+        List<BubbleFieldView.Bubble> moving = new ArrayList<>();
+        float[] targets = new float[2 * placed.size()];
+        int stagger = 0;
+        for (CirclePacker.Circle circle : placed) {
+            BubbleFieldView.Bubble bubble = bubbleField.get(circle.id);
+            if (bubble == null) {
+                continue;
+            }
+            if (entering.contains(bubble)) {
+                startFlowEntrance(bubble, circle.x, circle.y, stagger++ * ENTRANCE_STAGGER_MS);
+            } else {
+                targets[2 * moving.size()] = circle.x;
+                targets[2 * moving.size() + 1] = circle.y;
+                moving.add(bubble);
+            }
+        }
+        if (!moving.isEmpty()) {
+            bubbleField.animateTo(moving, targets, ARRANGE_DURATION_MS);
         }
     }
 
-    private void applyTheme() {
-        int themeIndex = SettingsActivity.getTheme(this);
-        RelativeLayout mainLayout = findViewById(R.id.bubbleContainer).getParent() instanceof RelativeLayout ?
-                (RelativeLayout) findViewById(R.id.bubbleContainer).getParent() : null;
+    private void applyTheme(SettingsStore.Settings current) {
+        int themeIndex = current.getTheme();
+        if (themeIndex == appliedTheme) {
+            return;
+        }
+        appliedTheme = themeIndex;
+        RelativeLayout mainLayout = bubbleField.getParent() instanceof RelativeLayout ?
+                (RelativeLayout) bubbleField.getParent() : null;
 
         if (mainLayout != null) {
             switch (themeIndex) {
@@ -155,27 +291,13 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void setupGestureDetector() {
-        gestureDetector = new GestureDetector(this, new GestureDetector.SimpleOnGestureListener() {
-            @Override
-            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-                float distance = Math.abs(e1.getX() - e2.getX()) + Math.abs(e1.getY() - e2.getY());
-                if (distance > 200) {
-                    triggerBurstMode(e1, e2);
-                    return true;
-                }
-                return false;
-            }
-        });
-
-        bubbleContainer.setOnTouchListener((v, event) -> gestureDetector.onTouchEvent(event));
-    }
-
     private void addSampleBubbles() {
-        addBubbleTask("Review project proposal", TaskCategory.WORK);
-        addBubbleTask("Buy groceries", TaskCategory.PERSONAL);
-        addBubbleTask("Morning workout", TaskCategory.HEALTH);
-        addBubbleTask("Client meeting", TaskCategory.URGENT);
+        List<TaskManager.EnhancedBubbleTask> samples = new ArrayList<>();
+        samples.add(new TaskManager.EnhancedBubbleTask("Review project proposal", TaskCategory.WORK));
+        samples.add(new TaskManager.EnhancedBubbleTask("Buy groceries", TaskCategory.PERSONAL));
+        samples.add(new TaskManager.EnhancedBubbleTask("Morning workout", TaskCategory.HEALTH));
+        samples.add(new TaskManager.EnhancedBubbleTask("Client meeting", TaskCategory.URGENT));
+        addBubbleTasks(samples);
     }
 
     private void showAddTaskDialog() {
@@ -190,20 +312,28 @@ public class MainActivity extends AppCompatActivity {
 
         final EditText taskInput = new EditText(this);
         taskInput.setHint("Enter your task...");
+        taskInput.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        taskInput.setMaxLines(6);
         layout.addView(taskInput);
 
         TextView categoryLabel = new TextView(this);
-        categoryLabel.setText("Category will be randomly assigned");
+        categoryLabel.setText("Category will be randomly assigned\nPaste several lines to add one bubble per line");
         categoryLabel.setPadding(0, 20, 0, 0);
         layout.addView(categoryLabel);
 
         builder.setView(layout);
 
         builder.setPositiveButton("Add Bubble", (dialog, which) -> {
-            String taskText = taskInput.getText().toString().trim();
-            if (!taskText.isEmpty()) {
-                TaskCategory randomCategory = TaskCategory.values()[random.nextInt(TaskCategory.values().length)];
-                addBubbleTask(taskText, randomCategory);
+            List<TaskManager.EnhancedBubbleTask> newTasks = new ArrayList<>();
+            for (String line : taskInput.getText().toString().split("\\r?\\n")) {
+                String taskText = line.trim();
+                if (!taskText.isEmpty()) {
+                    TaskCategory randomCategory = TaskCategory.values()[random.nextInt(TaskCategory.values().length)];
+                    newTasks.add(new TaskManager.EnhancedBubbleTask(taskText, randomCategory));
+                }
+            }
+            if (!newTasks.isEmpty()) {
+                addBubbleTasks(newTasks);
                 soundManager.playAddSound();
             }
         });
@@ -212,356 +342,306 @@ public class MainActivity extends AppCompatActivity {
         builder.show();
     }
 
-    private void addBubbleTask(String taskText, TaskCategory category) {
-        // Check max bubbles limit
-        int maxBubbles = SettingsActivity.getMaxBubbles(this);
-        if (bubbleTasks.size() >= maxBubbles) {
+    // Saves the tasks as one TaskManager batch; applyTaskChanges shows as many as the bubble
+    // limit allows. A single task is refused when the field is full; a pasted list is always saved.
+    private void addBubbleTasks(List<TaskManager.EnhancedBubbleTask> newTasks) {
+        int maxBubbles = settings.get().getMaxBubbles();
+        int room = maxBubbles - bubbleField.size();
+        if (room <= 0 && newTasks.size() == 1) {
             Toast.makeText(this, "Maximum bubble limit reached (" + maxBubbles + ")", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        BubbleTask bubbleTask = new BubbleTask(taskText, category);
-        bubbleTasks.add(bubbleTask);
+        taskManager.addAll(newTasks);
 
         // Track statistics
-        SettingsActivity.incrementTasksCreated(this);
-
-        // Create bubble view
-        TextView bubbleView = createRealisticBubbleView(bubbleTask);
-        bubbleContainer.addView(bubbleView);
-
-        // Position bubble at bottom initially for flow animation
-        positionBubbleAtBottom(bubbleView);
-
-        // Add flowing entrance animation from bottom to random position
-        animateBubbleFlowEntrance(bubbleView);
+        SettingsActivity.incrementTasksCreated(this, newTasks.size());
 
-        // Set up interactions
-        setupBubbleInteractions(bubbleView, bubbleTask);
-    }
-
-    private TextView createRealisticBubbleView(BubbleTask bubbleTask) {
-        TextView bubbleView = new TextView(this);
-        bubbleView.setText(bubbleTask.getText());
-        bubbleView.setTextColor(Color.WHITE);
-        bubbleView.setTextSize(11);
-        bubbleView.setPadding(25, 15, 25, 15);
-        bubbleView.setMaxLines(3);
-        bubbleView.setEllipsize(android.text.TextUtils.TruncateAt.END);
-        bubbleView.setShadowLayer(8.0f, 0.0f, 4.0f, Color.parseColor("#40000000"));
-
-        // Create realistic transparent bubble with gradient and glow
-        GradientDrawable bubble = new GradientDrawable();
-        bubble.setShape(GradientDrawable.OVAL);
-
-        // Create gradient effect for more realistic bubble appearance
-        int primaryColor = bubbleTask.getCategory().getColor();
-        int lighterColor = adjustColorBrightness(primaryColor, 0.3f);
-        int[] gradientColors = {lighterColor, primaryColor, adjustColorBrightness(primaryColor, -0.2f)};
-        bubble.setColors(gradientColors);
-        bubble.setGradientType(GradientDrawable.RADIAL_GRADIENT);
-        bubble.setGradientRadius(120f);
-
-        // Add subtle border with transparency
-        bubble.setStroke(3, Color.parseColor("#30FFFFFF"));
-
-        bubbleView.setBackground(bubble);
-
-        // Set transparency
-        bubbleView.setAlpha(bubbleTask.getCategory().getAlpha());
-
-        // Random size with more variation
-        int bubbleSize = 140 + random.nextInt(120); // 140-260dp
-        RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(bubbleSize, bubbleSize);
-        bubbleView.setLayoutParams(params);
-
-        bubbleView.setTag(bubbleTask);
-        return bubbleView;
-    }
-
-    private int adjustColorBrightness(int color, float factor) {
-        int r = Math.round((Color.red(color) * (1 + factor)));
-        int g = Math.round((Color.green(color) * (1 + factor)));
-        int b = Math.round((Color.blue(color) * (1 + factor)));
-
-        r = Math.max(0, Math.min(255, r));
-        g = Math.max(0, Math.min(255, g));
-        b = Math.max(0, Math.min(255, b));
-
-        return Color.rgb(r, g, b);
-    }
-
-    private void positionBubbleAtBottom(View bubbleView) {
-        bubbleView.post(() -> {
-            int containerWidth = bubbleContainer.getWidth();
-            int containerHeight = bubbleContainer.getHeight();
-            int bubbleWidth = bubbleView.getWidth();
-
-            // Start at bottom center
-            int x = (containerWidth - bubbleWidth) / 2;
-            int y = containerHeight; // Start below visible area
-
-            bubbleView.setX(x);
-            bubbleView.setY(y);
-        });
+        if (room < newTasks.size()) {
+            Toast.makeText(this, newTasks.size() + " tasks added, " + Math.max(room, 0)
+                    + " shown (limit " + maxBubbles + ")", Toast.LENGTH_SHORT).show();
+        }
     }
 
-    private void animateBubbleFlowEntrance(View bubbleView) {
-        bubbleView.setScaleX(0.3f);
-        bubbleView.setScaleY(0.3f);
-        bubbleView.setAlpha(0f);
-
-        bubbleView.post(() -> {
-            // Calculate final random position
-            int containerWidth = bubbleContainer.getWidth();
-            int containerHeight = bubbleContainer.getHeight();
-            int bubbleWidth = bubbleView.getWidth();
-            int bubbleHeight = bubbleView.getHeight();
-
-            // Allow positioning anywhere on screen (not just top)
-            int finalX = random.nextInt(Math.max(1, containerWidth - bubbleWidth));
-            int finalY = 100 + random.nextInt(Math.max(1, containerHeight - bubbleHeight - 200));
-
-            // Create flowing animation
-            AnimatorSet flowSet = new AnimatorSet();
-
-            // Movement animation - smooth flow upward
-            ObjectAnimator moveX = ObjectAnimator.ofFloat(bubbleView, "x", bubbleView.getX(), finalX);
-            ObjectAnimator moveY = ObjectAnimator.ofFloat(bubbleView, "y", bubbleView.getY(), finalY);
-
-            // Scale animation - grow as it flows
-            ObjectAnimator scaleX = ObjectAnimator.ofFloat(bubbleView, "scaleX", 0.3f, 1.1f, 1f);
-            ObjectAnimator scaleY = ObjectAnimator.ofFloat(bubbleView, "scaleY", 0.3f, 1.1f, 1f);
-
-            // Fade in animation
-            ObjectAnimator alpha = ObjectAnimator.ofFloat(bubbleView, "alpha", 0f, 1f);
-
-            // Rotation for more natural flow
-            ObjectAnimator rotation = ObjectAnimator.ofFloat(bubbleView, "rotation", 0f, 360f * (random.nextFloat() - 0.5f));
-
-            flowSet.playTogether(moveX, moveY, scaleX, scaleY, alpha, rotation);
-            flowSet.setDuration(1500 + random.nextInt(1000)); // 1.5-2.5 seconds
-            flowSet.setInterpolator(new AccelerateDecelerateInterpolator());
-
-            flowSet.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    // Start floating animation after flow is complete
-                    if (SettingsActivity.isPhysicsEnabled(MainActivity.this)) {
-                        startFloatingAnimation(bubbleView);
-                    }
+    // Adds every bubble before the next layout pass, then starts all entrances from one posted
+    // runnable, staggered so a large import does not start every animation on the same frame.
+    private void showBubbles(List<BubbleTask> newBubbles) {
+        if (newBubbles.isEmpty()) {
+            return;
+        }
+        List<BubbleFieldView.Bubble> added = new ArrayList<>(newBubbles.size());
+        for (BubbleTask bubbleTask : newBubbles) {
+            // Arranged bubbles are sized by priority; otherwise random size with more
+            // variation: 140-260px across
+            float size = autoArrange ? bubbleTask.getBubbleSize() : 140 + random.nextInt(120);
+            BubbleFieldView.Bubble bubble = bubbleField.add(bubbleTask, size / 2f);
+            prepareFlowEntrance(bubble);
+            added.add(bubble);
+        }
 
-                    // Add subtle pulsing effect
-                    startPulsingAnimation(bubbleView);
+        bubbleField.runWhenSized(() -> {
+            if (autoArrange) {
+                List<CirclePacker.Circle> circles = new ArrayList<>(added.size());
+                for (BubbleFieldView.Bubble bubble : added) {
+                    circles.add(circleOf(bubble));
                 }
-            });
-
-            flowSet.start();
+                Set<BubbleFieldView.Bubble> entering = new HashSet<>(added);
+                arranger.place(bubbleField.getWidth(), bubbleField.getHeight(), circles,
+                        placed -> applyArrangement(placed, entering));
+                return;
+            }
+            for (int i = 0; i < added.size(); i++) {
+                BubbleFieldView.Bubble bubble = added.get(i);
+                float radius = bubble.getRadius();
+                int size = Math.round(radius * 2);
+                // Aim anywhere on screen (not just top), then settle in the nearest free spot
+                float finalX = radius + random.nextInt(Math.max(1, bubbleField.getWidth() - size));
+                float finalY = 100 + radius + random.nextInt(Math.max(1, bubbleField.getHeight() - size - 200));
+                float[] spot = bubbleField.reserveFreeSpot(bubble, finalX, finalY, random);
+                if (spot != null) {
+                    finalX = spot[0];
+                    finalY = spot[1];
+                }
+                startFlowEntrance(bubble, finalX, finalY, i * ENTRANCE_STAGGER_MS);
+            }
         });
-    }
 
-    private void startPulsingAnimation(View bubbleView) {
-        ObjectAnimator pulseAnimator = ObjectAnimator.ofFloat(bubbleView, "alpha",
-                bubbleView.getAlpha(), bubbleView.getAlpha() * 0.7f, bubbleView.getAlpha());
-        pulseAnimator.setDuration(3000 + random.nextInt(2000));
-        pulseAnimator.setRepeatCount(ValueAnimator.INFINITE);
-        pulseAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        pulseAnimator.start();
+        if (searchBox.length() > 0) {
+            applySearchFilter();
+        }
     }
 
-    private void startFloatingAnimation(View bubbleView) {
-        if (!SettingsActivity.isPhysicsEnabled(this)) {
-            return;
-        }
+    private void prepareFlowEntrance(BubbleFieldView.Bubble bubble) {
+        BubbleFieldView.SCALE.set(bubble, 0.3f);
+        BubbleFieldView.ALPHA.set(bubble, 0f);
+    }
 
-        int animationSpeed = SettingsActivity.getAnimationSpeed(this);
-        int duration = 3000 - (animationSpeed * 20);
+    // Runs after layout: flows the bubble from the bottom center to its position.
+    private void startFlowEntrance(BubbleFieldView.Bubble bubble, float finalX, float finalY, long startDelay) {
+        // Start at bottom center, below the visible area
+        bubble.setPosition(bubbleField.getWidth() / 2f, bubbleField.getHeight() + bubble.getRadius());
 
-        ObjectAnimator floatAnimator = ObjectAnimator.ofFloat(bubbleView, "translationY", 0f, -30f, 0f);
-        floatAnimator.setDuration(Math.max(1500, duration));
-        floatAnimator.setRepeatCount(ValueAnimator.INFINITE);
-        floatAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        floatAnimator.start();
+        // Create flowing animation
+        AnimatorSet flowSet = new AnimatorSet();
 
-        bubbleView.setTag(R.id.float_animator, floatAnimator);
-    }
+        // Movement animation - smooth flow upward
+        ObjectAnimator moveX = bubbleField.animator(bubble, BubbleFieldView.X, bubble.getX(), finalX);
+        ObjectAnimator moveY = bubbleField.animator(bubble, BubbleFieldView.Y, bubble.getY(), finalY);
 
-    private void setupBubbleInteractions(TextView bubbleView, BubbleTask bubbleTask) {
-        bubbleView.setOnClickListener(v -> showTaskDetails(bubbleTask, bubbleView));
+        // Scale animation - grow as it flows
+        ObjectAnimator scale = bubbleField.animator(bubble, BubbleFieldView.SCALE, 0.3f, 1.1f, 1f);
 
-        bubbleView.setOnLongClickListener(v -> {
-            vibrateIfEnabled(50);
-            showTaskOptions(bubbleTask, bubbleView);
-            return true;
-        });
+        // Fade in animation
+        ObjectAnimator alpha = bubbleField.animator(bubble, BubbleFieldView.ALPHA, 0f,
+                bubble.getTask().getCategory().getAlpha());
 
-        makeBubbleDraggable(bubbleView);
-    }
+        // Rotation for more natural flow
+        ObjectAnimator rotation = bubbleField.animator(bubble, BubbleFieldView.ROTATION,
+                0f, 360f * (random.nextFloat() - 0.5f));
 
-    private void makeBubbleDraggable(View bubbleView) {
-        bubbleView.setOnTouchListener(new View.OnTouchListener() {
-            private float dX, dY;
-            private boolean isDragging = false;
-            private long startTime;
+        flowSet.playTogether(moveX, moveY, scale, alpha, rotation);
+        flowSet.setDuration(1500 + random.nextInt(1000)); // 1.5-2.5 seconds
+        flowSet.setInterpolator(new AccelerateDecelerateInterpolator());
+        flowSet.setStartDelay(startDelay);
 
+        flowSet.addListener(new AnimatorListenerAdapter() {
             @Override
-            public boolean onTouch(View view, MotionEvent event) {
-                switch (event.getAction()) {
-                    case MotionEvent.ACTION_DOWN:
-                        startTime = System.currentTimeMillis();
-                        dX = view.getX() - event.getRawX();
-                        dY = view.getY() - event.getRawY();
-                        isDragging = false;
-
-                        // Highlight bubble when touched
-                        view.setScaleX(1.05f);
-                        view.setScaleY(1.05f);
-                        break;
-
-                    case MotionEvent.ACTION_MOVE:
-                        if (System.currentTimeMillis() - startTime > 100) {
-                            isDragging = true;
-
-                            // Calculate new position
-                            float newX = event.getRawX() + dX;
-                            float newY = event.getRawY() + dY;
-
-                            // Keep bubble within screen bounds
-                            int containerWidth = bubbleContainer.getWidth();
-                            int containerHeight = bubbleContainer.getHeight();
-
-                            newX = Math.max(0, Math.min(newX, containerWidth - view.getWidth()));
-                            newY = Math.max(0, Math.min(newY, containerHeight - view.getHeight()));
-
-                            view.animate()
-                                    .x(newX)
-                                    .y(newY)
-                                    .setDuration(0)
-                                    .start();
-                        }
-                        break;
-
-                    case MotionEvent.ACTION_UP:
-                        // Return to normal size
-                        view.setScaleX(1f);
-                        view.setScaleY(1f);
-
-                        if (!isDragging && System.currentTimeMillis() - startTime < 500) {
-                            view.performClick();
-                        }
-
-                        if (isDragging) {
-                            // Add settling animation
-                            ObjectAnimator settle = ObjectAnimator.ofFloat(view, "rotation", view.getRotation(), 0f);
-                            settle.setDuration(300);
-                            settle.setInterpolator(new DecelerateInterpolator());
-                            settle.start();
-                        }
-                        break;
-                }
-                return true;
+            public void onAnimationEnd(Animator animation) {
+                // Let the physics float it from here
+                bubbleField.release(bubble);
             }
         });
+
+        bubbleField.start(bubble, flowSet);
     }
 
-    private void showTaskDetails(BubbleTask bubbleTask, View bubbleView) {
+    private void showTaskDetails(BubbleFieldView.Bubble bubble) {
+        BubbleTask bubbleTask = bubble.getTask();
         soundManager.playClickSound();
 
-        AnimatorSet pulseSet = new AnimatorSet();
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(bubbleView, "scaleX", 1f, 1.15f, 1f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(bubbleView, "scaleY", 1f, 1.15f, 1f);
-        pulseSet.playTogether(scaleX, scaleY);
-        pulseSet.setDuration(200);
-        pulseSet.start();
+        ObjectAnimator pulse = bubbleField.animator(bubble, BubbleFieldView.SCALE, 1f, 1.15f, 1f);
+        pulse.setDuration(200);
+        bubbleField.start(bubble, pulse);
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("🎈 " + bubbleTask.getCategory().getName());
         builder.setMessage(bubbleTask.getText());
-        builder.setPositiveButton("Complete", (dialog, which) -> completeBubbleTask(bubbleView, bubbleTask));
+        builder.setPositiveButton("Complete", (dialog, which) -> completeBubbleTask(bubbleTask));
         builder.setNegativeButton("Close", null);
         builder.show();
     }
 
-    private void showTaskOptions(BubbleTask bubbleTask, TextView bubbleView) {
+    private void showTaskOptions(BubbleFieldView.Bubble bubble) {
+        BubbleTask bubbleTask = bubble.getTask();
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Bubble Options");
 
-        String[] options = {"Complete Task", "Pin to Top", "Delete", "Edit"};
+        String[] options = {"Complete Task", "Pin to Top", "Delete", "Edit", "Set Reminder"};
         builder.setItems(options, (dialog, which) -> {
             switch (which) {
-                case 0: completeBubbleTask(bubbleView, bubbleTask); break;
-                case 1: pinBubbleToTop(bubbleView); break;
-                case 2: deleteBubbleTask(bubbleView, bubbleTask); break;
-                case 3: editBubbleTask(bubbleTask, bubbleView); break;
+                case 0: completeBubbleTask(bubbleTask); break;
+                case 1: pinBubbleToTop(bubbleTask); break;
+                case 2: deleteBubbleTask(bubbleTask); break;
+                case 3: editBubbleTask(bubbleTask); break;
+                case 4: showReminderPicker(bubbleTask); break;
             }
         });
 
         builder.show();
     }
 
-    private void completeBubbleTask(View bubbleView, BubbleTask bubbleTask) {
+    private void completeBubbleTask(BubbleTask bubbleTask) {
         SettingsActivity.incrementTasksCompleted(this);
+        taskManager.update(bubbleTask.getTaskId(), task -> task.setCompleted(true));
+        showUndoSnackbar("🎉 Task completed!");
+        vibrateIfEnabled(100);
+    }
+
+    private void pinBubbleToTop(BubbleTask bubbleTask) {
+        taskManager.update(bubbleTask.getTaskId(), task -> task.setPinned(true));
+        Toast.makeText(this, "📌 Bubble pinned to top!", Toast.LENGTH_SHORT).show();
+    }
+
+    private void deleteBubbleTask(BubbleTask bubbleTask) {
+        SettingsActivity.incrementBubblesBurst(this);
+        taskManager.remove(bubbleTask.getTaskId());
+        showUndoSnackbar("💥 Bubble burst!");
+        vibrateIfEnabled(50);
+    }
+
+    // Applies one TaskManager transaction to the bubble field, touching only the bubbles of
+    // the tasks it changed: open tasks gain a bubble, closed or removed ones lose theirs, and
+    // the rest refresh just the changed fields. User actions only call TaskManager and let
+    // this draw the result, so undo, redo and reminders take the same path.
+    private void applyTaskChanges(List<TaskChange> changes) {
+        int maxBubbles = settings.get().getMaxBubbles();
+        boolean staggered = changes.size() > 1;
+        boolean textChanged = false;
+        List<BubbleTask> added = new ArrayList<>();
+        for (TaskChange change : changes) {
+            TaskManager.EnhancedBubbleTask task = change.getTask();
+            boolean open = task != null && !task.isCompleted();
+            BubbleFieldView.Bubble bubble = bubbleField.get(change.getTaskId());
+            if (bubble == null) {
+                if (open && bubbleField.size() + added.size() < maxBubbles) {
+                    added.add(new BubbleTask(task));
+                }
+            } else if (!open) {
+                bubbleField.detach(change.getTaskId());
+                if (autoArrange) {
+                    arranger.remove(change.getTaskId());
+                }
+                if (task != null) {
+                    playCompletion(bubble);
+                } else {
+                    burstBubble(bubble, staggered ? random.nextInt(300) : 0);
+                }
+            } else {
+                refreshBubble(bubble, task, change);
+                textChanged |= change.changed(TaskChange.TEXT | TaskChange.NOTES);
+            }
+        }
+        showBubbles(added);
+        if (textChanged && searchBox.length() > 0) {
+            applySearchFilter();
+        }
+    }
 
-        ObjectAnimator floatAnimator = (ObjectAnimator) bubbleView.getTag(R.id.float_animator);
-        if (floatAnimator != null) {
-            floatAnimator.cancel();
+    private void refreshBubble(BubbleFieldView.Bubble bubble, TaskManager.EnhancedBubbleTask task, TaskChange change) {
+        BubbleTask bubbleTask = bubble.getTask();
+        if (change.changed(TaskChange.CATEGORY) && task.getCategory() != null) {
+            bubbleTask.setCategory(task.getCategory());
+            bubbleField.refresh(bubble);
+        }
+        if (change.changed(TaskChange.TEXT)) {
+            bubbleTask.setText(task.getText());
+            bubbleField.refresh(bubble);
+
+            ObjectAnimator pulse = bubbleField.animator(bubble, BubbleFieldView.SCALE, 1f, 1.2f, 1f);
+            pulse.setDuration(300);
+            bubbleField.start(bubble, pulse);
+        }
+        if (change.changed(TaskChange.PINNED)) {
+            bubbleTask.setPinned(task.isPinned());
+            if (task.isPinned()) {
+                bubbleField.hold(bubble);
+                ObjectAnimator moveY = bubbleField.animator(bubble, BubbleFieldView.Y,
+                        bubble.getY(), 100 + bubble.getRadius());
+                moveY.setDuration(800);
+                moveY.setInterpolator(new DecelerateInterpolator());
+                moveY.addListener(new AnimatorListenerAdapter() {
+                    @Override
+                    public void onAnimationEnd(Animator animation) {
+                        bubbleField.release(bubble);
+                    }
+                });
+                bubbleField.start(bubble, moveY);
+            }
         }
+    }
 
+    private void playCompletion(BubbleFieldView.Bubble bubble) {
         AnimatorSet completionSet = new AnimatorSet();
-        ObjectAnimator alpha = ObjectAnimator.ofFloat(bubbleView, "alpha", bubbleView.getAlpha(), 0f);
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(bubbleView, "scaleX", 1f, 2f, 0f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(bubbleView, "scaleY", 1f, 2f, 0f);
-        ObjectAnimator rotation = ObjectAnimator.ofFloat(bubbleView, "rotation", 0f, 720f);
+        ObjectAnimator alpha = bubbleField.animator(bubble, BubbleFieldView.ALPHA, bubble.getAlpha(), 0f);
+        ObjectAnimator scale = bubbleField.animator(bubble, BubbleFieldView.SCALE, 1f, 2f, 0f);
+        ObjectAnimator rotation = bubbleField.animator(bubble, BubbleFieldView.ROTATION, 0f, 720f);
 
-        completionSet.playTogether(alpha, scaleX, scaleY, rotation);
+        completionSet.playTogether(alpha, scale, rotation);
         completionSet.setDuration(800);
         completionSet.addListener(new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
-                bubbleContainer.removeView(bubbleView);
-                bubbleTasks.remove(bubbleTask);
-                Toast.makeText(MainActivity.this, "🎉 Task completed!", Toast.LENGTH_SHORT).show();
+                bubbleField.remove(bubble);
             }
         });
-        completionSet.start();
-
-        vibrateIfEnabled(100);
-    }
-
-    private void pinBubbleToTop(View bubbleView) {
-        ObjectAnimator moveY = ObjectAnimator.ofFloat(bubbleView, "y", bubbleView.getY(), 100);
-        moveY.setDuration(800);
-        moveY.setInterpolator(new DecelerateInterpolator());
-        moveY.start();
-
-        Toast.makeText(this, "📌 Bubble pinned to top!", Toast.LENGTH_SHORT).show();
+        bubbleField.start(bubble, completionSet);
     }
 
-    private void deleteBubbleTask(View bubbleView, BubbleTask bubbleTask) {
-        SettingsActivity.incrementBubblesBurst(this);
-
+    // Plays the burst animation and then removes the bubble; the task is already gone.
+    private void burstBubble(BubbleFieldView.Bubble bubble, long startDelay) {
         AnimatorSet burstSet = new AnimatorSet();
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(bubbleView, "scaleX", 1f, 3f, 0f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(bubbleView, "scaleY", 1f, 3f, 0f);
-        ObjectAnimator alpha = ObjectAnimator.ofFloat(bubbleView, "alpha", bubbleView.getAlpha(), 0f);
-        ObjectAnimator rotation = ObjectAnimator.ofFloat(bubbleView, "rotation", 0f, 1080f);
+        ObjectAnimator scale = bubbleField.animator(bubble, BubbleFieldView.SCALE, 1f, 3f, 0f);
+        ObjectAnimator alpha = bubbleField.animator(bubble, BubbleFieldView.ALPHA, bubble.getAlpha(), 0f);
+        ObjectAnimator rotation = bubbleField.animator(bubble, BubbleFieldView.ROTATION, 0f, 1080f);
 
-        burstSet.playTogether(scaleX, scaleY, alpha, rotation);
+        burstSet.playTogether(scale, alpha, rotation);
         burstSet.setDuration(500);
+        burstSet.setStartDelay(startDelay);
         burstSet.addListener(new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
-                bubbleContainer.removeView(bubbleView);
-                bubbleTasks.remove(bubbleTask);
-                Toast.makeText(MainActivity.this, "💥 Bubble burst!", Toast.LENGTH_SHORT).show();
+                bubbleField.remove(bubble);
             }
         });
-        burstSet.start();
+        bubbleField.start(bubble, burstSet);
+    }
 
-        vibrateIfEnabled(50);
+    // A change too large for the undo history is shown without an Undo action.
+    private void showUndoSnackbar(String message) {
+        Snackbar snackbar = Snackbar.make(bubbleField, message, Snackbar.LENGTH_LONG);
+        if (taskManager.canUndo()) {
+            snackbar.setAction("Undo", v -> undoLastChange());
+        }
+        snackbar.show();
+    }
+
+    private void undoLastChange() {
+        taskManager.undo();
+        if (taskManager.canRedo()) {
+            Snackbar.make(bubbleField, "↩️ Undone", Snackbar.LENGTH_LONG)
+                    .setAction("Redo", v -> redoLastChange())
+                    .show();
+        }
     }
 
-    private void editBubbleTask(BubbleTask bubbleTask, TextView bubbleView) {
+    private void redoLastChange() {
+        taskManager.redo();
+        if (taskManager.canUndo()) {
+            showUndoSnackbar("↪️ Redone");
+        }
+    }
+
+    private void editBubbleTask(BubbleTask bubbleTask) {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Edit Bubble Task");
 
@@ -572,15 +652,7 @@ public class MainActivity extends AppCompatActivity {
         builder.setPositiveButton("Save", (dialog, which) -> {
             String newText = editText.getText().toString().trim();
             if (!newText.isEmpty()) {
-                bubbleTask.setText(newText);
-                bubbleView.setText(newText);
-
-                AnimatorSet updateSet = new AnimatorSet();
-                ObjectAnimator scaleX = ObjectAnimator.ofFloat(bubbleView, "scaleX", 1f, 1.2f, 1f);
-                ObjectAnimator scaleY = ObjectAnimator.ofFloat(bubbleView, "scaleY", 1f, 1.2f, 1f);
-                updateSet.playTogether(scaleX, scaleY);
-                updateSet.setDuration(300);
-                updateSet.start();
+                taskManager.update(bubbleTask.getTaskId(), task -> task.setText(newText));
             }
         });
 
@@ -588,38 +660,49 @@ public class MainActivity extends AppCompatActivity {
         builder.show();
     }
 
-    private void triggerBurstMode(MotionEvent e1, MotionEvent e2) {
+    private void showReminderPicker(BubbleTask bubbleTask) {
+        String notificationPermission = Manifest.permission.POST_NOTIFICATIONS;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && checkSelfPermission(notificationPermission) != PackageManager.PERMISSION_GRANTED) {
+            requestPermissions(new String[]{notificationPermission}, NOTIFICATION_PERMISSION_REQUEST_CODE);
+        }
+
+        Calendar calendar = Calendar.getInstance();
+        new DatePickerDialog(this, (dateView, year, month, day) -> {
+            calendar.set(year, month, day);
+            new TimePickerDialog(this, (timeView, hour, minute) -> {
+                calendar.set(Calendar.HOUR_OF_DAY, hour);
+                calendar.set(Calendar.MINUTE, minute);
+                calendar.set(Calendar.SECOND, 0);
+                Date dueDate = calendar.getTime();
+                taskManager.update(bubbleTask.getTaskId(), task -> task.setDueDate(dueDate));
+                Toast.makeText(this, "⏰ Reminder set", Toast.LENGTH_SHORT).show();
+            }, calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), true).show();
+        }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
+    }
+
+    // Everything along the swipe path is removed as one TaskManager batch, so a single undo
+    // brings the whole burst back; applyTaskChanges staggers the burst animations.
+    private void triggerBurstMode(List<BubbleFieldView.Bubble> crossed) {
         Toast.makeText(this, "💥 Burst Mode Activated!", Toast.LENGTH_SHORT).show();
         soundManager.playBurstSound();
 
-        for (int i = bubbleContainer.getChildCount() - 1; i >= 0; i--) {
-            View child = bubbleContainer.getChildAt(i);
-            if (child instanceof TextView && child.getTag() instanceof BubbleTask) {
-                float bubbleX = child.getX() + child.getWidth() / 2;
-                float bubbleY = child.getY() + child.getHeight() / 2;
+        List<Long> burstIds = new ArrayList<>();
+        for (BubbleFieldView.Bubble bubble : crossed) {
+            burstIds.add(bubble.getTaskId());
+            SettingsActivity.incrementBubblesBurst(this);
+        }
 
-                if (isPointInSwipePath(bubbleX, bubbleY, e1, e2)) {
-                    new Handler().postDelayed(() -> {
-                        deleteBubbleTask(child, (BubbleTask) child.getTag());
-                    }, random.nextInt(300));
-                }
-            }
+        if (!burstIds.isEmpty()) {
+            taskManager.removeAll(burstIds);
+            showUndoSnackbar(burstIds.size() == 1 ? "💥 Bubble burst!" : "💥 " + burstIds.size() + " bubbles burst!");
         }
 
         vibrateIfEnabled(200);
     }
 
-    private boolean isPointInSwipePath(float x, float y, MotionEvent e1, MotionEvent e2) {
-        float A = e2.getY() - e1.getY();
-        float B = e1.getX() - e2.getX();
-        float C = e2.getX() * e1.getY() - e1.getX() * e2.getY();
-
-        float distance = Math.abs(A * x + B * y + C) / (float) Math.sqrt(A * A + B * B);
-        return distance < 100;
-    }
-
     private void vibrateIfEnabled(int duration) {
-        if (SettingsActivity.isVibrationEnabled(this) && vibrator != null) {
+        if (settings.get().isVibrationEnabled() && vibrator != null) {
             vibrator.vibrate(duration);
         }
     }
@@ -630,20 +713,30 @@ public class MainActivity extends AppCompatActivity {
         long sessionEndTime = System.currentTimeMillis();
         long sessionDuration = sessionEndTime - sessionStartTime;
         SettingsActivity.updateSessionTime(this, sessionDuration);
+        taskManager.flush();
+        bubbleField.pauseAnimations();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         sessionStartTime = System.currentTimeMillis();
+        bubbleField.resumeAnimations();
+    }
 
-        // Update sound settings when resuming
-        soundManager.setSoundEnabled(SettingsActivity.isSoundEnabled(this));
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        bubbleField.trimMemory(level);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        taskManager.removeChangeListener(taskChangeListener);
+        searchBox.removeCallbacks(searchFilter);
+        settings.removeListener(settingsListener);
+        arranger.close();
         // Release sound resources
         if (soundManager != null) {
             soundManager.release();
@@ -652,9 +745,11 @@ public class MainActivity extends AppCompatActivity {
 
     // Inner class for BubbleTask
     public static class BubbleTask {
+        private long taskId;
         private String text;
         private TaskCategory category;
         private boolean isPinned;
+        private int bubbleSize = 160;
 
         public BubbleTask(String text, TaskCategory category) {
             this.text = text;
@@ -662,10 +757,21 @@ public class MainActivity extends AppCompatActivity {
             this.isPinned = false;
         }
 
+        // A bubble for a persisted task; taskId is the key for TaskManager updates.
+        public BubbleTask(TaskManager.EnhancedBubbleTask task) {
+            this(task.getText(), task.getCategory() != null ? task.getCategory() : TaskCategory.PERSONAL);
+            this.taskId = task.getId();
+            this.isPinned = task.isPinned();
+            this.bubbleSize = task.getBubbleSize();
+        }
+
+        public long getTaskId() { return taskId; }
         public String getText() { return text; }
         public void setText(String text) { this.text = text; }
         public TaskCategory getCategory() { return category; }
+        public void setCategory(TaskCategory category) { this.category = category; }
         public boolean isPinned() { return isPinned; }
         public void setPinned(boolean pinned) { isPinned = pinned; }
+        public int getBubbleSize() { return bubbleSize; }
     }
 }
\ No newline at end of file
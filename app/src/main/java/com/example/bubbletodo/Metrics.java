@@ -0,0 +1,186 @@
+package com.example.bubbletodo;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process performance metrics for the hot paths: latency histograms with fixed buckets
+ * and plain counters. Recording is lock-free and allocates nothing, so it can run on the
+ * main thread every frame; the values live for the process and are shown on the settings
+ * screen, which can also export them to a file.
+ */
+public final class Metrics {
+    private static final List<Histogram> histograms = new ArrayList<>();
+    private static final List<Counter> counters = new ArrayList<>();
+
+    public static final Histogram TASK_PERSIST = histogram("task.persist", "Task save");
+    public static final Histogram TASK_LOAD = histogram("task.load", "Task load");
+    public static final Histogram BUBBLE_CREATE = histogram("bubble.create", "Bubble creation");
+    public static final Histogram FRAME = histogram("frame", "Frame time");
+    public static final Histogram SOUND_PLAY = histogram("sound.play", "Sound start");
+
+    public static final Counter TASK_WRITES = counter("task.writes");
+    public static final Counter RENDER_TIER_CHANGES = counter("render.tier_changes");
+
+    private Metrics() {}
+
+    /** The clock every histogram is fed from. */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    public static List<Histogram> getHistograms() {
+        return Collections.unmodifiableList(histograms);
+    }
+
+    public static List<Counter> getCounters() {
+        return Collections.unmodifiableList(counters);
+    }
+
+    /** Writes every metric as CSV: histograms in milliseconds, then counters. */
+    public static void export(Writer out) throws IOException {
+        out.write("metric,count,p50_ms,p95_ms,p99_ms,max_ms\n");
+        for (Histogram histogram : histograms) {
+            out.write(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f\n", histogram.getName(),
+                    histogram.getCount(), millis(histogram.percentile(50)), millis(histogram.percentile(95)),
+                    millis(histogram.percentile(99)), millis(histogram.getMax())));
+        }
+        for (Counter counter : counters) {
+            out.write(String.format(Locale.US, "%s,%d,,,,\n", counter.getName(), counter.get()));
+        }
+    }
+
+    public static void export(File file) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            export(out);
+        }
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Histogram histogram(String name, String label) {
+        Histogram histogram = new Histogram(name, label);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    private static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Durations counted in buckets four to an octave from 10 microseconds to about 10
+     * seconds, so a percentile is read to within 19% of the true value.
+     */
+    public static final class Histogram {
+        private static final long FIRST_BOUND_NANOS = 10_000;
+        private static final int BUCKETS_PER_OCTAVE = 4;
+        private static final long[] BOUNDS = new long[BUCKETS_PER_OCTAVE * 20 + 1];
+
+        static {
+            for (int i = 0; i < BOUNDS.length; i++) {
+                BOUNDS[i] = Math.round(FIRST_BOUND_NANOS * Math.pow(2, (double) i / BUCKETS_PER_OCTAVE));
+            }
+        }
+
+        private final String name;
+        private final String label;
+        // The last bucket counts everything above the highest bound.
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name, String label) {
+            this.name = name;
+            this.label = label;
+        }
+
+        public String getName() { return name; }
+        public String getLabel() { return label; }
+
+        public void record(long nanos) {
+            int index = Arrays.binarySearch(BOUNDS, nanos);
+            buckets.incrementAndGet(index >= 0 ? index : -index - 1);
+            count.incrementAndGet();
+            long previous;
+            while (nanos > (previous = max.get()) && !max.compareAndSet(previous, nanos)) {
+                // Another thread raised the max; try again against its value.
+            }
+        }
+
+        /** Records the time since {@code startNanos}, taken from {@link Metrics#now}. */
+        public void recordSince(long startNanos) {
+            record(now() - startNanos);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * The upper bound of the bucket holding the given percentile (0-100), capped at the
+         * largest value seen; 0 if nothing was recorded.
+         */
+        public long percentile(double percent) {
+            long total = 0;
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BOUNDS.length ? Math.min(BOUNDS[i], getMax()) : getMax();
+                }
+            }
+            return getMax();
+        }
+    }
+}
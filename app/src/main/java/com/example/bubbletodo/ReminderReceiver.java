@@ -0,0 +1,105 @@
+package com.example.bubbletodo;
+
+import android.app.AlarmManager;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Receives the single reminder alarm registered by {@link ReminderScheduler} and posts a
+ * notification for every task it covers. After a reboot it just starts the task manager,
+ * whose load schedules the reminders again.
+ */
+public class ReminderReceiver extends BroadcastReceiver {
+    private static final String TAG = "ReminderReceiver";
+    static final String ACTION_REMINDER = "com.example.bubbletodo.action.REMINDER";
+    private static final String CHANNEL_ID = "task_reminders";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Context appContext = context.getApplicationContext();
+        String action = intent.getAction();
+        PendingResult result = goAsync();
+        new Thread(() -> {
+            try {
+                TaskManager manager = TaskManager.getInstance(appContext);
+                if (ACTION_REMINDER.equals(action)) {
+                    for (TaskManager.EnhancedBubbleTask task : manager.takeDueReminders()) {
+                        showNotification(appContext, task);
+                    }
+                }
+                // Runs after the initial load on the same thread, so a boot also waits here
+                // until the reminders are scheduled again.
+                manager.flush().get();
+            } catch (InterruptedException | ExecutionException e) {
+                Log.w(TAG, "Failed to deliver reminders", e);
+            } finally {
+                result.finish();
+            }
+        }, "ReminderReceiver").start();
+    }
+
+    private static void showNotification(Context context, TaskManager.EnhancedBubbleTask task) {
+        NotificationManager notificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        Notification.Builder builder;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            notificationManager.createNotificationChannel(new NotificationChannel(
+                    CHANNEL_ID, "Task reminders", NotificationManager.IMPORTANCE_DEFAULT));
+            builder = new Notification.Builder(context, CHANNEL_ID);
+        } else {
+            builder = legacyBuilder(context);
+        }
+
+        PendingIntent openApp = PendingIntent.getActivity(context, 0,
+                new Intent(context, MainActivity.class), PendingIntent.FLAG_IMMUTABLE);
+        String category = task.getCategory() != null ? task.getCategory().getName() : "Task";
+        builder.setSmallIcon(R.drawable.ic_bubble_logo)
+                .setContentTitle("🎈 " + category + " reminder")
+                .setContentText(task.getText())
+                .setContentIntent(openApp)
+                .setAutoCancel(true);
+        notificationManager.notify(Long.hashCode(task.getId()), builder.build());
+    }
+
+    // Before O notifications have no channel; the constructor for that is deprecated since.
+    @SuppressWarnings("deprecation")
+    private static Notification.Builder legacyBuilder(Context context) {
+        return new Notification.Builder(context);
+    }
+
+    /** Registers the scheduler's next wakeup with {@link AlarmManager}. */
+    static class Alarm implements ReminderScheduler.AlarmSink {
+        private final Context context;
+
+        Alarm(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        @Override
+        public void setAlarm(long triggerAtMillis) {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAtMillis, pendingIntent());
+        }
+
+        @Override
+        public void cancelAlarm() {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            alarmManager.cancel(pendingIntent());
+        }
+
+        private PendingIntent pendingIntent() {
+            Intent intent = new Intent(context, ReminderReceiver.class).setAction(ACTION_REMINDER);
+            return PendingIntent.getBroadcast(context, 0, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        }
+    }
+}
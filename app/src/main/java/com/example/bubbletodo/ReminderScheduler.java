@@ -0,0 +1,198 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps pending task reminders in an indexed min-heap ordered by trigger time, so scheduling,
+ * rescheduling and cancelling a reminder cost O(log n). Only the earliest trigger is handed to
+ * the {@link AlarmSink}, and only when it changes. When the alarm goes off, every reminder due
+ * within the coalescing window is delivered together, so reminders a few seconds apart share
+ * one wakeup.
+ *
+ * Plain Java: the clock and the system alarm are injected.
+ */
+public class ReminderScheduler {
+    public static final long DEFAULT_COALESCE_WINDOW_MS = 60_000;
+
+    private static final long NO_ALARM = Long.MIN_VALUE;
+
+    public interface Clock {
+        long now();
+    }
+
+    /** The single system wakeup, e.g. an {@code AlarmManager} alarm. */
+    public interface AlarmSink {
+        void setAlarm(long triggerAtMillis);
+
+        void cancelAlarm();
+    }
+
+    private final Clock clock;
+    private final AlarmSink sink;
+    private final long coalesceWindowMs;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private Entry[] heap = new Entry[16];
+    private int size;
+    private long registeredAlarm = NO_ALARM;
+
+    public ReminderScheduler(Clock clock, AlarmSink sink) {
+        this(clock, sink, DEFAULT_COALESCE_WINDOW_MS);
+    }
+
+    public ReminderScheduler(Clock clock, AlarmSink sink, long coalesceWindowMs) {
+        this.clock = clock;
+        this.sink = sink;
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    /** Schedules the reminder for a task, or moves it if one is already scheduled. */
+    public synchronized void schedule(long taskId, long triggerAtMillis) {
+        Entry entry = entries.get(taskId);
+        if (entry == null) {
+            entry = new Entry(taskId, triggerAtMillis);
+            entries.put(taskId, entry);
+            if (size == heap.length) {
+                Entry[] grown = new Entry[heap.length * 2];
+                System.arraycopy(heap, 0, grown, 0, size);
+                heap = grown;
+            }
+            entry.index = size;
+            heap[size++] = entry;
+            siftUp(entry.index);
+        } else if (entry.triggerAt != triggerAtMillis) {
+            long previous = entry.triggerAt;
+            entry.triggerAt = triggerAtMillis;
+            if (triggerAtMillis < previous) {
+                siftUp(entry.index);
+            } else {
+                siftDown(entry.index);
+            }
+        }
+        updateAlarm();
+    }
+
+    public synchronized boolean cancel(long taskId) {
+        Entry entry = entries.remove(taskId);
+        if (entry == null) {
+            return false;
+        }
+        removeAt(entry.index);
+        updateAlarm();
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+        updateAlarm();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Trigger time of the earliest reminder, or -1 if none is scheduled. */
+    public synchronized long nextTrigger() {
+        return size > 0 ? heap[0].triggerAt : -1;
+    }
+
+    /**
+     * Call when the alarm goes off. Removes and returns the IDs of every reminder due by now
+     * plus the coalescing window, earliest first, and registers the next wakeup.
+     */
+    public synchronized List<Long> fireDue() {
+        long horizon = clock.now() + coalesceWindowMs;
+        List<Long> due = new ArrayList<>();
+        while (size > 0 && heap[0].triggerAt <= horizon) {
+            Entry entry = heap[0];
+            removeAt(0);
+            entries.remove(entry.taskId);
+            due.add(entry.taskId);
+        }
+        // The alarm that woke us is spent, so the next one must be registered even if
+        // its time equals the last registration.
+        registeredAlarm = NO_ALARM;
+        updateAlarm();
+        return due;
+    }
+
+    private void updateAlarm() {
+        long next = size > 0 ? heap[0].triggerAt : NO_ALARM;
+        if (next == registeredAlarm) {
+            return;
+        }
+        registeredAlarm = next;
+        if (next == NO_ALARM) {
+            sink.cancelAlarm();
+        } else {
+            sink.setAlarm(next);
+        }
+    }
+
+    private void removeAt(int index) {
+        Entry last = heap[--size];
+        heap[size] = null;
+        if (index == size) {
+            return;
+        }
+        heap[index] = last;
+        last.index = index;
+        siftDown(index);
+        if (heap[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].triggerAt <= entry.triggerAt) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].triggerAt < heap[child].triggerAt) {
+                child = right;
+            }
+            if (entry.triggerAt <= heap[child].triggerAt) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private static final class Entry {
+        final long taskId;
+        long triggerAt;
+        int index;
+
+        Entry(long taskId, long triggerAt) {
+            this.taskId = taskId;
+            this.triggerAt = triggerAt;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bubbletodo;
+
+import java.util.Arrays;
+
+/**
+ * Picks how much effort {@link BubbleFieldView} spends per bubble from the frame times it
+ * measures. Frame intervals are collected in windows; when a window's 95th percentile is well
+ * over the frame budget (frames are being dropped) the tier steps down one level, and after a
+ * few windows in a row within budget it steps back up. Stepping up is slower than stepping
+ * down so the tier does not flip back and forth around the limit.
+ *
+ * Allocates nothing per frame. Not thread-safe; fed from the field's frame callback.
+ */
+class RenderQuality {
+    enum Tier {
+        /** Gradient fill, stroke, text shadow and the alpha pulse. */
+        FULL(true, true, true),
+        NO_SHADOW(false, true, true),
+        /** Flat category colour instead of the gradient. */
+        FLAT(false, false, true),
+        /** Also drops the alpha pulse. */
+        STILL(false, false, false);
+
+        private final boolean shadows;
+        private final boolean gradients;
+        private final boolean pulses;
+
+        Tier(boolean shadows, boolean gradients, boolean pulses) {
+            this.shadows = shadows;
+            this.gradients = gradients;
+            this.pulses = pulses;
+        }
+
+        boolean drawsShadows() { return shadows; }
+        boolean drawsGradients() { return gradients; }
+        boolean pulses() { return pulses; }
+    }
+
+    static final int WINDOW_FRAMES = 60;
+    // A frame this far over budget is a dropped vsync, not jitter.
+    private static final float SLOW_FACTOR = 1.5f;
+    private static final float HEADROOM_FACTOR = 1.1f;
+    private static final int WINDOWS_BEFORE_STEP_UP = 3;
+
+    private final long[] window = new long[WINDOW_FRAMES];
+    private final long[] sorted = new long[WINDOW_FRAMES];
+    private long frameBudgetNanos;
+    private int frames;
+    private int fastWindows;
+    private Tier tier = Tier.FULL;
+
+    RenderQuality(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    /** E.g. after the display's refresh rate is known; restarts the measurement. */
+    void setFrameBudget(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+        reset();
+    }
+
+    Tier getTier() {
+        return tier;
+    }
+
+    /** Discards the current window, e.g. after a pause whose gap is not a slow frame. */
+    void reset() {
+        frames = 0;
+        fastWindows = 0;
+    }
+
+    /** Records one frame interval; returns true if the tier changed. */
+    boolean onFrame(long frameNanos) {
+        window[frames++] = frameNanos;
+        if (frames < WINDOW_FRAMES) {
+            return false;
+        }
+        frames = 0;
+        long p95 = percentile95();
+        Tier[] tiers = Tier.values();
+        if (p95 > frameBudgetNanos * SLOW_FACTOR) {
+            fastWindows = 0;
+            if (tier.ordinal() < tiers.length - 1) {
+                tier = tiers[tier.ordinal() + 1];
+                return true;
+            }
+        } else if (p95 <= frameBudgetNanos * HEADROOM_FACTOR) {
+            if (++fastWindows >= WINDOWS_BEFORE_STEP_UP && tier.ordinal() > 0) {
+                fastWindows = 0;
+                tier = tiers[tier.ordinal() - 1];
+                return true;
+            }
+        } else {
+            fastWindows = 0;
+        }
+        return false;
+    }
+
+    private long percentile95() {
+        System.arraycopy(window, 0, sorted, 0, WINDOW_FRAMES);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(WINDOW_FRAMES * 0.95) - 1];
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.bubbletodo;
 
-import android.annotation.SuppressLint;
 import android.app.AlertDialog;
 import android.content.Intent;
 import android.content.SharedPreferences;
@@ -18,6 +17,10 @@ import androidx.appcompat.widget.Toolbar;
 
 import com.google.android.material.button.MaterialButton;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
 public class SettingsActivity extends AppCompatActivity {
 
     // UI Components
@@ -34,25 +37,20 @@ public class SettingsActivity extends AppCompatActivity {
     private TextView tasksCompletedCount;
     private TextView bubblesBurstCount;
     private TextView sessionTimeCount;
+    private TextView performanceStats;
     private TextView versionText;
     private MaterialButton rateAppButton;
     private MaterialButton shareAppButton;
     private MaterialButton clearDataButton;
     private MaterialButton resetSettingsButton;
+    private MaterialButton exportMetricsButton;
 
-    // SharedPreferences
+    // SharedPreferences, for the statistics; settings go through the store
     private SharedPreferences sharedPreferences;
-    private SharedPreferences.Editor editor;
+    private SettingsStore settingsStore;
 
     // Constants for SharedPreferences keys
-    private static final String PREFS_NAME = "BubbleTodoPrefs";
-    private static final String PREF_SOUND_ENABLED = "sound_enabled";
-    private static final String PREF_VIBRATION_ENABLED = "vibration_enabled";
-    private static final String PREF_PHYSICS_ENABLED = "physics_enabled";
-    private static final String PREF_AUTO_ARRANGE = "auto_arrange";
-    private static final String PREF_THEME = "theme";
-    private static final String PREF_ANIMATION_SPEED = "animation_speed";
-    private static final String PREF_MAX_BUBBLES = "max_bubbles";
+    private static final String PREFS_NAME = SettingsStore.PREFS_NAME;
     private static final String PREF_TASKS_CREATED = "tasks_created";
     private static final String PREF_TASKS_COMPLETED = "tasks_completed";
     private static final String PREF_BUBBLES_BURST = "bubbles_burst";
@@ -95,11 +93,13 @@ public class SettingsActivity extends AppCompatActivity {
         tasksCompletedCount = findViewById(R.id.tasksCompletedCount);
         bubblesBurstCount = findViewById(R.id.bubblesBurstCount);
         sessionTimeCount = findViewById(R.id.sessionTimeCount);
+        performanceStats = findViewById(R.id.performanceStats);
         versionText = findViewById(R.id.versionText);
         rateAppButton = findViewById(R.id.rateAppButton);
         shareAppButton = findViewById(R.id.shareAppButton);
         clearDataButton = findViewById(R.id.clearDataButton);
         resetSettingsButton = findViewById(R.id.resetSettingsButton);
+        exportMetricsButton = findViewById(R.id.exportMetricsButton);
     }
 
     private void setupToolbar() {
@@ -116,21 +116,23 @@ public class SettingsActivity extends AppCompatActivity {
 
     private void setupSharedPreferences() {
         sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        editor = sharedPreferences.edit();
+        settingsStore = SettingsStore.getInstance(this);
     }
 
     private void loadSettings() {
+        SettingsStore.Settings settings = settingsStore.get();
+
         // Load switch states
-        soundSwitch.setChecked(sharedPreferences.getBoolean(PREF_SOUND_ENABLED, true));
-        vibrationSwitch.setChecked(sharedPreferences.getBoolean(PREF_VIBRATION_ENABLED, true));
-        physicsSwitch.setChecked(sharedPreferences.getBoolean(PREF_PHYSICS_ENABLED, true));
-        autoArrangeSwitch.setChecked(sharedPreferences.getBoolean(PREF_AUTO_ARRANGE, false));
+        soundSwitch.setChecked(settings.isSoundEnabled());
+        vibrationSwitch.setChecked(settings.isVibrationEnabled());
+        physicsSwitch.setChecked(settings.isPhysicsEnabled());
+        autoArrangeSwitch.setChecked(settings.isAutoArrangeEnabled());
 
         // Load seekbar values
-        int animationSpeed = sharedPreferences.getInt(PREF_ANIMATION_SPEED, 50);
+        int animationSpeed = settings.getAnimationSpeed();
         animationSpeedSeekBar.setProgress(animationSpeed);
 
-        int maxBubbles = sharedPreferences.getInt(PREF_MAX_BUBBLES, 25);
+        int maxBubbles = settings.getMaxBubbles();
         maxBubblesSeekBar.setProgress(maxBubbles - 10); // Adjust for min value
         maxBubblesValue.setText(String.valueOf(maxBubbles));
 
@@ -140,7 +142,7 @@ public class SettingsActivity extends AppCompatActivity {
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         themeSpinner.setAdapter(adapter);
 
-        int themeSelection = sharedPreferences.getInt(PREF_THEME, 0);
+        int themeSelection = settings.getTheme();
         themeSpinner.setSelection(themeSelection);
 
         // Set version text
@@ -155,25 +157,25 @@ public class SettingsActivity extends AppCompatActivity {
     private void setupEventListeners() {
         // Sound switch
         soundSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            editor.putBoolean(PREF_SOUND_ENABLED, isChecked).apply();
+            settingsStore.setSoundEnabled(isChecked);
             showToast(isChecked ? "Sound effects enabled" : "Sound effects disabled");
         });
 
         // Vibration switch
         vibrationSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            editor.putBoolean(PREF_VIBRATION_ENABLED, isChecked).apply();
+            settingsStore.setVibrationEnabled(isChecked);
             showToast(isChecked ? "Vibration enabled" : "Vibration disabled");
         });
 
         // Physics switch
         physicsSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            editor.putBoolean(PREF_PHYSICS_ENABLED, isChecked).apply();
+            settingsStore.setPhysicsEnabled(isChecked);
             showToast(isChecked ? "Physics enabled" : "Physics disabled");
         });
 
         // Auto-arrange switch
         autoArrangeSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            editor.putBoolean(PREF_AUTO_ARRANGE, isChecked).apply();
+            settingsStore.setAutoArrange(isChecked);
             showToast(isChecked ? "Auto-arrange enabled" : "Auto-arrange disabled");
         });
 
@@ -181,8 +183,9 @@ public class SettingsActivity extends AppCompatActivity {
         animationSpeedSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                // Seen at once by the store's listeners; written when the drag ends
                 if (fromUser) {
-                    editor.putInt(PREF_ANIMATION_SPEED, progress).apply();
+                    settingsStore.setAnimationSpeed(progress);
                 }
             }
 
@@ -191,6 +194,7 @@ public class SettingsActivity extends AppCompatActivity {
 
             @Override
             public void onStopTrackingTouch(SeekBar seekBar) {
+                settingsStore.flush();
                 showToast("Animation speed updated");
             }
         });
@@ -202,7 +206,7 @@ public class SettingsActivity extends AppCompatActivity {
                 int actualValue = progress + 10; // Add min value
                 maxBubblesValue.setText(String.valueOf(actualValue));
                 if (fromUser) {
-                    editor.putInt(PREF_MAX_BUBBLES, actualValue).apply();
+                    settingsStore.setMaxBubbles(actualValue);
                 }
             }
 
@@ -211,6 +215,7 @@ public class SettingsActivity extends AppCompatActivity {
 
             @Override
             public void onStopTrackingTouch(SeekBar seekBar) {
+                settingsStore.flush();
                 showToast("Max bubbles updated");
             }
         });
@@ -219,7 +224,7 @@ public class SettingsActivity extends AppCompatActivity {
         themeSpinner.setOnItemSelectedListener(new android.widget.AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(android.widget.AdapterView<?> parent, android.view.View view, int position, long id) {
-                editor.putInt(PREF_THEME, position).apply();
+                settingsStore.setTheme(position);
                 showToast("Theme changed to: " + themeOptions[position]);
             }
 
@@ -258,6 +263,9 @@ public class SettingsActivity extends AppCompatActivity {
 
         // Reset settings button
         resetSettingsButton.setOnClickListener(v -> showResetSettingsDialog());
+
+        // Export metrics button
+        exportMetricsButton.setOnClickListener(v -> exportMetrics());
     }
 
     private void updateStatistics() {
@@ -279,6 +287,43 @@ public class SettingsActivity extends AppCompatActivity {
             int minutes = sessionMinutes % 60;
             sessionTimeCount.setText(hours + "h " + minutes + "m");
         }
+
+        // Latency percentiles recorded since the app started
+        StringBuilder performance = new StringBuilder();
+        for (Metrics.Histogram histogram : Metrics.getHistograms()) {
+            if (performance.length() > 0) {
+                performance.append('\n');
+            }
+            if (histogram.getCount() == 0) {
+                performance.append(String.format(Locale.US, "%-15s  no data", histogram.getLabel()));
+                continue;
+            }
+            performance.append(String.format(Locale.US, "%-15s  p50 %s  p95 %s  p99 %s",
+                    histogram.getLabel(), formatMillis(histogram.percentile(50)),
+                    formatMillis(histogram.percentile(95)), formatMillis(histogram.percentile(99))));
+        }
+        performanceStats.setText(performance);
+    }
+
+    private static String formatMillis(long nanos) {
+        double millis = Metrics.millis(nanos);
+        return millis < 10 ? String.format(Locale.US, "%.1fms", millis) : Math.round(millis) + "ms";
+    }
+
+    // Writes to the app's external files directory, which needs no permission to write and
+    // can be copied off the device.
+    private void exportMetrics() {
+        File directory = getExternalFilesDir(null);
+        if (directory == null) {
+            directory = getFilesDir();
+        }
+        File file = new File(directory, "metrics-" + System.currentTimeMillis() + ".csv");
+        try {
+            Metrics.export(file);
+            showToast("Metrics saved to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            showToast("Could not export metrics");
+        }
     }
 
     private void showClearDataDialog() {
@@ -314,52 +359,23 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     private void clearAllData() {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.clear();
-        editor.apply();
+        TaskManager.getInstance(this).clearAllTasks();
+        settingsStore.clearAll();
     }
 
     private void resetSettingsToDefault() {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-
         // Reset only settings, keep statistics
-        int tasksCreated = sharedPreferences.getInt(PREF_TASKS_CREATED, 0);
-        int tasksCompleted = sharedPreferences.getInt(PREF_TASKS_COMPLETED, 0);
-        int bubblesBurst = sharedPreferences.getInt(PREF_BUBBLES_BURST, 0);
-        long sessionTime = sharedPreferences.getLong(PREF_SESSION_TIME, 0);
-
-        editor.clear();
-
-        // Restore statistics
-        editor.putInt(PREF_TASKS_CREATED, tasksCreated);
-        editor.putInt(PREF_TASKS_COMPLETED, tasksCompleted);
-        editor.putInt(PREF_BUBBLES_BURST, bubblesBurst);
-        editor.putLong(PREF_SESSION_TIME, sessionTime);
-
-        // Set default settings
-        editor.putBoolean(PREF_SOUND_ENABLED, true);
-        editor.putBoolean(PREF_VIBRATION_ENABLED, true);
-        editor.putBoolean(PREF_PHYSICS_ENABLED, true);
-        editor.putBoolean(PREF_AUTO_ARRANGE, false);
-        editor.putInt(PREF_THEME, 0);
-        editor.putInt(PREF_ANIMATION_SPEED, 50);
-        editor.putInt(PREF_MAX_BUBBLES, 25);
-
-        editor.apply();
+        settingsStore.resetToDefaults();
     }
 
     private void showToast(String message) {
         Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
     }
 
-    @SuppressLint("GestureBackNavigation")
     @Override
-    public void onBackPressed() {
-        super.onBackPressed();
-        // Return settings data to main activity
-        Intent resultIntent = new Intent();
-        resultIntent.putExtra("settings_changed", true);
-        setResult(RESULT_OK, resultIntent);
+    protected void onPause() {
+        super.onPause();
+        settingsStore.flush();
     }
 
     @Override
@@ -368,47 +384,15 @@ public class SettingsActivity extends AppCompatActivity {
         return true;
     }
 
-    // Static methods to help other activities access settings
-    public static boolean isSoundEnabled(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getBoolean(PREF_SOUND_ENABLED, true);
-    }
-
-    public static boolean isVibrationEnabled(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getBoolean(PREF_VIBRATION_ENABLED, true);
-    }
-
-    public static boolean isPhysicsEnabled(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getBoolean(PREF_PHYSICS_ENABLED, true);
-    }
-
-    public static boolean isAutoArrangeEnabled(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getBoolean(PREF_AUTO_ARRANGE, false);
-    }
-
-    public static int getAnimationSpeed(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getInt(PREF_ANIMATION_SPEED, 50);
-    }
-
-    public static int getMaxBubbles(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getInt(PREF_MAX_BUBBLES, 25);
-    }
-
-    public static int getTheme(android.content.Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        return prefs.getInt(PREF_THEME, 0);
-    }
-
     // Static methods to update statistics
     public static void incrementTasksCreated(android.content.Context context) {
+        incrementTasksCreated(context, 1);
+    }
+
+    public static void incrementTasksCreated(android.content.Context context, int created) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         int count = prefs.getInt(PREF_TASKS_CREATED, 0);
-        prefs.edit().putInt(PREF_TASKS_CREATED, count + 1).apply();
+        prefs.edit().putInt(PREF_TASKS_CREATED, count + created).apply();
     }
 
     public static void incrementTasksCompleted(android.content.Context context) {
@@ -0,0 +1,273 @@
+package com.example.bubbletodo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The app settings as an immutable {@link Settings} snapshot held in memory, so reading one
+ * on a hot path is a field read rather than a preferences lookup. Changes made through the
+ * setters show up in the snapshot and reach the listeners at once; they are written to the
+ * preferences together, either after a short quiet period or when {@link #flush} is called,
+ * e.g. at the end of a seek bar drag. Changes made to the preferences directly are picked up
+ * through a preference change listener.
+ */
+public class SettingsStore {
+    public interface Listener {
+        /** Called on the thread that made the change, normally the main thread. */
+        void onSettingsChanged(Settings settings);
+    }
+
+    static final String PREFS_NAME = "BubbleTodoPrefs";
+    static final String KEY_SOUND_ENABLED = "sound_enabled";
+    static final String KEY_VIBRATION_ENABLED = "vibration_enabled";
+    static final String KEY_PHYSICS_ENABLED = "physics_enabled";
+    static final String KEY_AUTO_ARRANGE = "auto_arrange";
+    static final String KEY_THEME = "theme";
+    static final String KEY_ANIMATION_SPEED = "animation_speed";
+    static final String KEY_MAX_BUBBLES = "max_bubbles";
+    static final long WRITE_DELAY_MS = 500;
+
+    private static SettingsStore instance;
+
+    private final SharedPreferences preferences;
+    private final ScheduledExecutorService writeExecutor;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Values set but not yet written, by key; guarded by itself.
+    private final Map<String, Object> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledWrite;
+    private volatile Settings current;
+
+    // Held in a field: the preferences only keep a weak reference to it.
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener = (prefs, key) -> {
+        // A null key means the preferences were cleared.
+        if (key == null || Settings.isSettingKey(key)) {
+            reload();
+        }
+    };
+
+    public static synchronized SettingsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SettingsStore(context.getApplicationContext()
+                    .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                    Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "SettingsStore");
+                        thread.setDaemon(true);
+                        return thread;
+                    }));
+        }
+        return instance;
+    }
+
+    SettingsStore(SharedPreferences preferences, ScheduledExecutorService writeExecutor) {
+        this.preferences = preferences;
+        this.writeExecutor = writeExecutor;
+        this.current = Settings.read(preferences, pending);
+        preferences.registerOnSharedPreferenceChangeListener(preferenceListener);
+    }
+
+    public Settings get() {
+        return current;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void setSoundEnabled(boolean enabled) { set(KEY_SOUND_ENABLED, enabled); }
+    public void setVibrationEnabled(boolean enabled) { set(KEY_VIBRATION_ENABLED, enabled); }
+    public void setPhysicsEnabled(boolean enabled) { set(KEY_PHYSICS_ENABLED, enabled); }
+    public void setAutoArrange(boolean enabled) { set(KEY_AUTO_ARRANGE, enabled); }
+    public void setTheme(int theme) { set(KEY_THEME, theme); }
+    public void setAnimationSpeed(int speed) { set(KEY_ANIMATION_SPEED, speed); }
+    public void setMaxBubbles(int maxBubbles) { set(KEY_MAX_BUBBLES, maxBubbles); }
+
+    /** Puts every setting back to its default and writes them at once. */
+    public void resetToDefaults() {
+        synchronized (pending) {
+            pending.putAll(Settings.DEFAULTS.toMap());
+        }
+        reload();
+        flush();
+    }
+
+    /**
+     * Clears the whole preferences file, the statistics kept in it included, and forgets the
+     * changes not written yet. The snapshot is reloaded here, since before API 30 a clear does
+     * not reach the preference change listener.
+     */
+    public void clearAll() {
+        synchronized (pending) {
+            pending.clear();
+            cancelScheduledWrite();
+            preferences.edit().clear().apply();
+        }
+        reload();
+    }
+
+    /** Writes the pending changes now, in one preferences edit. */
+    public void flush() {
+        synchronized (pending) {
+            cancelScheduledWrite();
+        }
+        writePending();
+    }
+
+    private void set(String key, Object value) {
+        synchronized (pending) {
+            pending.put(key, value);
+            // Restarts the delay, so a burst of changes is written once it settles.
+            cancelScheduledWrite();
+            scheduledWrite = writeExecutor.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        reload();
+    }
+
+    private void cancelScheduledWrite() {
+        if (scheduledWrite != null) {
+            scheduledWrite.cancel(false);
+            scheduledWrite = null;
+        }
+    }
+
+    private void writePending() {
+        synchronized (pending) {
+            scheduledWrite = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            SharedPreferences.Editor editor = preferences.edit();
+            for (Map.Entry<String, Object> entry : pending.entrySet()) {
+                if (entry.getValue() instanceof Boolean) {
+                    editor.putBoolean(entry.getKey(), (Boolean) entry.getValue());
+                } else {
+                    editor.putInt(entry.getKey(), (Integer) entry.getValue());
+                }
+            }
+            // apply() updates the in-memory preferences before returning, so the values are
+            // never missing from both the preferences and the pending map.
+            editor.apply();
+            pending.clear();
+        }
+    }
+
+    private void reload() {
+        Settings settings;
+        synchronized (pending) {
+            settings = Settings.read(preferences, pending);
+        }
+        if (settings.equals(current)) {
+            return;
+        }
+        current = settings;
+        for (Listener listener : listeners) {
+            listener.onSettingsChanged(settings);
+        }
+    }
+
+    /** One consistent set of settings values. */
+    public static final class Settings {
+        static final Settings DEFAULTS = new Settings(true, true, true, false, 0, 50, 25);
+
+        private final boolean soundEnabled;
+        private final boolean vibrationEnabled;
+        private final boolean physicsEnabled;
+        private final boolean autoArrange;
+        private final int theme;
+        private final int animationSpeed;
+        private final int maxBubbles;
+
+        private Settings(boolean soundEnabled, boolean vibrationEnabled, boolean physicsEnabled,
+                         boolean autoArrange, int theme, int animationSpeed, int maxBubbles) {
+            this.soundEnabled = soundEnabled;
+            this.vibrationEnabled = vibrationEnabled;
+            this.physicsEnabled = physicsEnabled;
+            this.autoArrange = autoArrange;
+            this.theme = theme;
+            this.animationSpeed = animationSpeed;
+            this.maxBubbles = maxBubbles;
+        }
+
+        public boolean isSoundEnabled() { return soundEnabled; }
+        public boolean isVibrationEnabled() { return vibrationEnabled; }
+        public boolean isPhysicsEnabled() { return physicsEnabled; }
+        public boolean isAutoArrangeEnabled() { return autoArrange; }
+        public int getTheme() { return theme; }
+        public int getAnimationSpeed() { return animationSpeed; }
+        public int getMaxBubbles() { return maxBubbles; }
+
+        static boolean isSettingKey(String key) {
+            return DEFAULTS.toMap().containsKey(key);
+        }
+
+        // Pending values win over the stored ones.
+        static Settings read(SharedPreferences preferences, Map<String, Object> pending) {
+            return new Settings(
+                    readBoolean(preferences, pending, KEY_SOUND_ENABLED, DEFAULTS.soundEnabled),
+                    readBoolean(preferences, pending, KEY_VIBRATION_ENABLED, DEFAULTS.vibrationEnabled),
+                    readBoolean(preferences, pending, KEY_PHYSICS_ENABLED, DEFAULTS.physicsEnabled),
+                    readBoolean(preferences, pending, KEY_AUTO_ARRANGE, DEFAULTS.autoArrange),
+                    readInt(preferences, pending, KEY_THEME, DEFAULTS.theme),
+                    readInt(preferences, pending, KEY_ANIMATION_SPEED, DEFAULTS.animationSpeed),
+                    readInt(preferences, pending, KEY_MAX_BUBBLES, DEFAULTS.maxBubbles));
+        }
+
+        private static boolean readBoolean(SharedPreferences preferences, Map<String, Object> pending,
+                                           String key, boolean defaultValue) {
+            Object value = pending.get(key);
+            return value != null ? (Boolean) value : preferences.getBoolean(key, defaultValue);
+        }
+
+        private static int readInt(SharedPreferences preferences, Map<String, Object> pending,
+                                   String key, int defaultValue) {
+            Object value = pending.get(key);
+            return value != null ? (Integer) value : preferences.getInt(key, defaultValue);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> values = new HashMap<>();
+            values.put(KEY_SOUND_ENABLED, soundEnabled);
+            values.put(KEY_VIBRATION_ENABLED, vibrationEnabled);
+            values.put(KEY_PHYSICS_ENABLED, physicsEnabled);
+            values.put(KEY_AUTO_ARRANGE, autoArrange);
+            values.put(KEY_THEME, theme);
+            values.put(KEY_ANIMATION_SPEED, animationSpeed);
+            values.put(KEY_MAX_BUBBLES, maxBubbles);
+            return values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Settings)) return false;
+            Settings other = (Settings) o;
+            return soundEnabled == other.soundEnabled && vibrationEnabled == other.vibrationEnabled
+                    && physicsEnabled == other.physicsEnabled && autoArrange == other.autoArrange
+                    && theme == other.theme && animationSpeed == other.animationSpeed
+                    && maxBubbles == other.maxBubbles;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (soundEnabled ? 1 : 0);
+            result = 31 * result + (vibrationEnabled ? 1 : 0);
+            result = 31 * result + (physicsEnabled ? 1 : 0);
+            result = 31 * result + (autoArrange ? 1 : 0);
+            result = 31 * result + theme;
+            result = 31 * result + animationSpeed;
+            return 31 * result + maxBubbles;
+        }
+    }
+}
@@ -83,32 +83,30 @@ public class SoundManager {
     }
 
     public void playPopSound() {
-        if (soundEnabled && popSoundId != -1) {
-            soundPool.play(popSoundId, 1.0f, 1.0f, 0, 0, 1.0f);
-        }
+        play(popSoundId, 1.0f);
     }
 
     public void playBurstSound() {
-        if (soundEnabled && burstSoundId != -1) {
-            soundPool.play(burstSoundId, 1.0f, 1.0f, 0, 0, 1.0f);
-        }
+        play(burstSoundId, 1.0f);
     }
 
     public void playCompleteSound() {
-        if (soundEnabled && completeSoundId != -1) {
-            soundPool.play(completeSoundId, 1.0f, 1.0f, 0, 0, 1.0f);
-        }
+        play(completeSoundId, 1.0f);
     }
 
     public void playAddSound() {
-        if (soundEnabled && addSoundId != -1) {
-            soundPool.play(addSoundId, 1.0f, 1.0f, 0, 0, 1.0f);
-        }
+        play(addSoundId, 1.0f);
     }
 
     public void playClickSound() {
-        if (soundEnabled && clickSoundId != -1) {
-            soundPool.play(clickSoundId, 0.5f, 0.5f, 0, 0, 1.0f);
+        play(clickSoundId, 0.5f);
+    }
+
+    private void play(int soundId, float volume) {
+        if (soundEnabled && soundId != -1) {
+            long start = Metrics.now();
+            soundPool.play(soundId, volume, volume, 0, 0, 1.0f);
+            Metrics.SOUND_PLAY.recordSince(start);
         }
     }
 
@@ -0,0 +1,206 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid over the bubble field. Each bubble is listed in every cell its bounds overlap,
+ * and is moved between cells as it moves, so a tap looks at one cell, a swipe only at the
+ * cells along its path and a collision check only at the bubbles sharing a cell, instead of
+ * at every bubble.
+ *
+ * Bubbles report their own moves through {@link BubbleFieldView.Bubble}; a move that stays
+ * within the same cells costs a few comparisons. Not thread-safe; used on the main thread.
+ */
+class SpatialGrid {
+    // Entrance and press animations grow a bubble by up to this much; bounds include it.
+    private static final float MAX_INDEXED_SCALE = 1.1f;
+
+    private final float cellSize;
+    private int columns = 1;
+    private int rows = 1;
+    private List<List<BubbleFieldView.Bubble>> cells = newCells(1);
+    private int queryStamp;
+
+    SpatialGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /** Re-buckets every bubble for a field of the new size. */
+    void resize(float width, float height, List<BubbleFieldView.Bubble> bubbles) {
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        cells = newCells(columns * rows);
+        for (int i = 0, n = bubbles.size(); i < n; i++) {
+            BubbleFieldView.Bubble bubble = bubbles.get(i);
+            if (bubble.grid == this) {
+                bubble.grid = null;
+                insert(bubble);
+            }
+        }
+    }
+
+    void insert(BubbleFieldView.Bubble bubble) {
+        bubble.grid = this;
+        bubble.cellLeft = column(bubble.getX() - boundsRadius(bubble));
+        bubble.cellTop = row(bubble.getY() - boundsRadius(bubble));
+        bubble.cellRight = column(bubble.getX() + boundsRadius(bubble));
+        bubble.cellBottom = row(bubble.getY() + boundsRadius(bubble));
+        link(bubble);
+    }
+
+    void remove(BubbleFieldView.Bubble bubble) {
+        if (bubble.grid != this) {
+            return;
+        }
+        unlink(bubble);
+        bubble.grid = null;
+    }
+
+    /** Called after the bubble moved; relinks it only if it crossed into other cells. */
+    void update(BubbleFieldView.Bubble bubble) {
+        float r = boundsRadius(bubble);
+        int left = column(bubble.getX() - r);
+        int top = row(bubble.getY() - r);
+        int right = column(bubble.getX() + r);
+        int bottom = row(bubble.getY() + r);
+        if (left == bubble.cellLeft && top == bubble.cellTop
+                && right == bubble.cellRight && bottom == bubble.cellBottom) {
+            return;
+        }
+        unlink(bubble);
+        bubble.cellLeft = left;
+        bubble.cellTop = top;
+        bubble.cellRight = right;
+        bubble.cellBottom = bottom;
+        link(bubble);
+    }
+
+    /** The visible bubble drawn on top at the point, or null. */
+    BubbleFieldView.Bubble topmostAt(float x, float y) {
+        List<BubbleFieldView.Bubble> cell = cells.get(row(y) * columns + column(x));
+        BubbleFieldView.Bubble top = null;
+        for (int i = 0, n = cell.size(); i < n; i++) {
+            BubbleFieldView.Bubble bubble = cell.get(i);
+            if (bubble.isHittable() && bubble.contains(x, y) && (top == null || bubble.order > top.order)) {
+                top = bubble;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Adds to {@code out} each visible bubble whose center is within {@code tolerance} of the
+     * polyline through the first {@code pointCount} x,y pairs of {@code points}. Only the cells
+     * around each segment are searched.
+     */
+    void collectNearPath(float[] points, int pointCount, float tolerance, List<BubbleFieldView.Bubble> out) {
+        int stamp = ++queryStamp;
+        if (pointCount == 1) {
+            collectNearSegment(points[0], points[1], points[0], points[1], tolerance, stamp, out);
+        }
+        for (int i = 1; i < pointCount; i++) {
+            float x1 = points[2 * i - 2];
+            float y1 = points[2 * i - 1];
+            float x2 = points[2 * i];
+            float y2 = points[2 * i + 1];
+            // Long segments are walked in cell-sized pieces so a diagonal does not search its
+            // whole bounding box.
+            int pieces = Math.max(1, (int) Math.ceil(Math.hypot(x2 - x1, y2 - y1) / cellSize));
+            for (int p = 0; p < pieces; p++) {
+                float t1 = (float) p / pieces;
+                float t2 = (float) (p + 1) / pieces;
+                collectNearSegment(x1 + (x2 - x1) * t1, y1 + (y2 - y1) * t1,
+                        x1 + (x2 - x1) * t2, y1 + (y2 - y1) * t2, tolerance, stamp, out);
+            }
+        }
+    }
+
+    /**
+     * Adds to {@code out} every other bubble listed in a cell the bubble is in, hidden ones
+     * included. Any bubble whose bounds overlap this one's is among them.
+     */
+    void collectNeighbours(BubbleFieldView.Bubble bubble, List<BubbleFieldView.Bubble> out) {
+        int stamp = ++queryStamp;
+        bubble.queryStamp = stamp;
+        for (int r = bubble.cellTop; r <= bubble.cellBottom; r++) {
+            for (int c = bubble.cellLeft; c <= bubble.cellRight; c++) {
+                List<BubbleFieldView.Bubble> cell = cells.get(r * columns + c);
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    BubbleFieldView.Bubble other = cell.get(i);
+                    if (other.queryStamp != stamp) {
+                        other.queryStamp = stamp;
+                        out.add(other);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectNearSegment(float x1, float y1, float x2, float y2, float tolerance,
+                                    int stamp, List<BubbleFieldView.Bubble> out) {
+        int left = column(Math.min(x1, x2) - tolerance);
+        int right = column(Math.max(x1, x2) + tolerance);
+        int top = row(Math.min(y1, y2) - tolerance);
+        int bottom = row(Math.max(y1, y2) + tolerance);
+        for (int r = top; r <= bottom; r++) {
+            for (int c = left; c <= right; c++) {
+                List<BubbleFieldView.Bubble> cell = cells.get(r * columns + c);
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    BubbleFieldView.Bubble bubble = cell.get(i);
+                    if (bubble.queryStamp != stamp && bubble.isHittable()
+                            && distanceToSegment(bubble.getX(), bubble.getY(), x1, y1, x2, y2) <= tolerance) {
+                        bubble.queryStamp = stamp;
+                        out.add(bubble);
+                    }
+                }
+            }
+        }
+    }
+
+    static float distanceToSegment(float px, float py, float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float lengthSq = dx * dx + dy * dy;
+        float t = lengthSq == 0 ? 0 : ((px - x1) * dx + (py - y1) * dy) / lengthSq;
+        t = Math.max(0, Math.min(1, t));
+        return (float) Math.hypot(px - (x1 + t * dx), py - (y1 + t * dy));
+    }
+
+    private void link(BubbleFieldView.Bubble bubble) {
+        for (int r = bubble.cellTop; r <= bubble.cellBottom; r++) {
+            for (int c = bubble.cellLeft; c <= bubble.cellRight; c++) {
+                cells.get(r * columns + c).add(bubble);
+            }
+        }
+    }
+
+    private void unlink(BubbleFieldView.Bubble bubble) {
+        for (int r = bubble.cellTop; r <= bubble.cellBottom; r++) {
+            for (int c = bubble.cellLeft; c <= bubble.cellRight; c++) {
+                cells.get(r * columns + c).remove(bubble);
+            }
+        }
+    }
+
+    // Positions off the field (a bubble entering from below) fall in the edge cells.
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    private static float boundsRadius(BubbleFieldView.Bubble bubble) {
+        return bubble.getRadius() * MAX_INDEXED_SCALE;
+    }
+
+    private static List<List<BubbleFieldView.Bubble>> newCells(int count) {
+        List<List<BubbleFieldView.Bubble>> cells = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cells.add(new ArrayList<>(4));
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.bubbletodo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link TaskStore} with one SQLite row per task. Category, pinned, completed, due date and
+ * priority are indexed columns, so queries on them do not scan the table. Mutations run
+ * inside a transaction that is committed by {@link #flush()}, one commit per write-behind batch.
+ */
+public class SqliteTaskStore extends SQLiteOpenHelper implements TaskStore {
+    private static final String DATABASE_NAME = "bubble_tasks.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_TASKS = "tasks";
+    private static final String COL_ID = "id";
+    private static final String COL_TEXT = "text";
+    private static final String COL_CATEGORY = "category";
+    private static final String COL_PINNED = "is_pinned";
+    private static final String COL_COMPLETED = "is_completed";
+    private static final String COL_CREATED_DATE = "created_date";
+    private static final String COL_DUE_DATE = "due_date";
+    private static final String COL_PRIORITY = "priority";
+    private static final String COL_NOTES = "notes";
+    private static final String COL_REMINDER_ID = "reminder_id";
+
+    private SQLiteStatement upsertStatement;
+    private SQLiteStatement deleteStatement;
+
+    public SqliteTaskStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_TASKS + " ("
+                + COL_ID + " INTEGER PRIMARY KEY, "
+                + COL_TEXT + " TEXT NOT NULL, "
+                + COL_CATEGORY + " TEXT NOT NULL, "
+                + COL_PINNED + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_COMPLETED + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_CREATED_DATE + " INTEGER NOT NULL, "
+                + COL_DUE_DATE + " INTEGER, "
+                + COL_PRIORITY + " INTEGER NOT NULL DEFAULT 2, "
+                + COL_NOTES + " TEXT, "
+                + COL_REMINDER_ID + " INTEGER NOT NULL DEFAULT -1)");
+        db.execSQL("CREATE INDEX idx_tasks_category ON " + TABLE_TASKS + "(" + COL_CATEGORY + ")");
+        db.execSQL("CREATE INDEX idx_tasks_pinned ON " + TABLE_TASKS + "(" + COL_PINNED + ")");
+        db.execSQL("CREATE INDEX idx_tasks_completed ON " + TABLE_TASKS + "(" + COL_COMPLETED + ")");
+        db.execSQL("CREATE INDEX idx_tasks_due_date ON " + TABLE_TASKS + "(" + COL_DUE_DATE + ")");
+        db.execSQL("CREATE INDEX idx_tasks_priority ON " + TABLE_TASKS + "(" + COL_PRIORITY + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only one schema version so far.
+    }
+
+    @Override
+    public boolean isEmpty() throws IOException {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT 1 FROM " + TABLE_TASKS + " LIMIT 1", null)) {
+            return !cursor.moveToFirst();
+        } catch (SQLException e) {
+            throw new IOException("Task query failed", e);
+        }
+    }
+
+    @Override
+    public List<TaskManager.EnhancedBubbleTask> load() throws IOException {
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TASKS, null, null, null,
+                null, null, COL_ID)) {
+            int idIndex = cursor.getColumnIndexOrThrow(COL_ID);
+            int textIndex = cursor.getColumnIndexOrThrow(COL_TEXT);
+            int categoryIndex = cursor.getColumnIndexOrThrow(COL_CATEGORY);
+            int pinnedIndex = cursor.getColumnIndexOrThrow(COL_PINNED);
+            int completedIndex = cursor.getColumnIndexOrThrow(COL_COMPLETED);
+            int createdIndex = cursor.getColumnIndexOrThrow(COL_CREATED_DATE);
+            int dueIndex = cursor.getColumnIndexOrThrow(COL_DUE_DATE);
+            int priorityIndex = cursor.getColumnIndexOrThrow(COL_PRIORITY);
+            int notesIndex = cursor.getColumnIndexOrThrow(COL_NOTES);
+            int reminderIndex = cursor.getColumnIndexOrThrow(COL_REMINDER_ID);
+
+            while (cursor.moveToNext()) {
+                TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask(
+                        cursor.getString(textIndex), parseCategory(cursor.getString(categoryIndex)));
+                task.setId(cursor.getLong(idIndex));
+                task.setPinned(cursor.getInt(pinnedIndex) != 0);
+                task.setCompleted(cursor.getInt(completedIndex) != 0);
+                task.setCreatedDate(new Date(cursor.getLong(createdIndex)));
+                task.setDueDate(cursor.isNull(dueIndex) ? null : new Date(cursor.getLong(dueIndex)));
+                task.setPriority(cursor.getInt(priorityIndex));
+                task.setNotes(cursor.isNull(notesIndex) ? "" : cursor.getString(notesIndex));
+                task.setReminderId(cursor.getLong(reminderIndex));
+                tasks.add(task);
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new IOException("Task query failed", e);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void add(TaskManager.EnhancedBubbleTask task) throws IOException {
+        upsert(task);
+    }
+
+    @Override
+    public void update(TaskManager.EnhancedBubbleTask task) throws IOException {
+        upsert(task);
+    }
+
+    @Override
+    public void remove(long taskId) throws IOException {
+        try {
+            SQLiteDatabase db = beginBatch();
+            if (deleteStatement == null) {
+                deleteStatement = db.compileStatement(
+                        "DELETE FROM " + TABLE_TASKS + " WHERE " + COL_ID + " = ?");
+            }
+            deleteStatement.bindLong(1, taskId);
+            deleteStatement.executeUpdateDelete();
+        } catch (SQLException e) {
+            throw new IOException("Task delete failed", e);
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        try {
+            beginBatch().delete(TABLE_TASKS, null, null);
+        } catch (SQLException e) {
+            throw new IOException("Task delete failed", e);
+        }
+    }
+
+    @Override
+    public void replaceAll(List<TaskManager.EnhancedBubbleTask> tasks) throws IOException {
+        clear();
+        for (TaskManager.EnhancedBubbleTask task : tasks) {
+            upsert(task);
+        }
+        flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        SQLiteDatabase db = getWritableDatabase();
+        if (!db.inTransaction()) {
+            return;
+        }
+        try {
+            db.setTransactionSuccessful();
+        } finally {
+            try {
+                db.endTransaction();
+            } catch (SQLException e) {
+                throw new IOException("Task commit failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void rollback() throws IOException {
+        SQLiteDatabase db = getWritableDatabase();
+        if (!db.inTransaction()) {
+            return;
+        }
+        try {
+            db.endTransaction();
+        } catch (SQLException e) {
+            throw new IOException("Task rollback failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (upsertStatement != null) {
+            upsertStatement.close();
+            upsertStatement = null;
+        }
+        if (deleteStatement != null) {
+            deleteStatement.close();
+            deleteStatement = null;
+        }
+        super.close();
+    }
+
+    private void upsert(TaskManager.EnhancedBubbleTask task) throws IOException {
+        try {
+            SQLiteDatabase db = beginBatch();
+            if (upsertStatement == null) {
+                upsertStatement = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_TASKS + " ("
+                        + COL_ID + ", " + COL_TEXT + ", " + COL_CATEGORY + ", " + COL_PINNED + ", "
+                        + COL_COMPLETED + ", " + COL_CREATED_DATE + ", " + COL_DUE_DATE + ", "
+                        + COL_PRIORITY + ", " + COL_NOTES + ", " + COL_REMINDER_ID
+                        + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            }
+            SQLiteStatement statement = upsertStatement;
+            statement.clearBindings();
+            statement.bindLong(1, task.getId());
+            statement.bindString(2, task.getText() != null ? task.getText() : "");
+            statement.bindString(3, task.getCategory() != null
+                    ? task.getCategory().name() : MainActivity.TaskCategory.PERSONAL.name());
+            statement.bindLong(4, task.isPinned() ? 1 : 0);
+            statement.bindLong(5, task.isCompleted() ? 1 : 0);
+            statement.bindLong(6, task.getCreatedDate() != null
+                    ? task.getCreatedDate().getTime() : System.currentTimeMillis());
+            if (task.getDueDate() != null) {
+                statement.bindLong(7, task.getDueDate().getTime());
+            } else {
+                statement.bindNull(7);
+            }
+            statement.bindLong(8, task.getPriority());
+            statement.bindString(9, task.getNotes() != null ? task.getNotes() : "");
+            statement.bindLong(10, task.getReminderId());
+            statement.executeInsert();
+        } catch (SQLException e) {
+            throw new IOException("Task write failed", e);
+        }
+    }
+
+    // Opens the batch transaction on the first mutation after a flush.
+    private SQLiteDatabase beginBatch() {
+        SQLiteDatabase db = getWritableDatabase();
+        if (!db.inTransaction()) {
+            db.beginTransactionNonExclusive();
+        }
+        return db;
+    }
+
+    private static MainActivity.TaskCategory parseCategory(String name) {
+        try {
+            return MainActivity.TaskCategory.valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return MainActivity.TaskCategory.PERSONAL;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.bubbletodo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compact binary encoding for {@link TaskManager.EnhancedBubbleTask}.
+ *
+ * A stream starts with the magic {@code "BTSK"} and a format version byte, followed by one
+ * record per task. Each record is a varint length and then:
+ * <pre>
+ *   varint  id
+ *   byte    category ordinal (0xFF = none)
+ *   byte    flags: bit 0 pinned, bit 1 completed, bit 2 has due date, bits 3-6 priority,
+ *           bit 7 no created date
+ *   int64   created date, epoch millis (unless flagged)
+ *   int64   due date, epoch millis (only if flagged)
+ *   varint  reminder id, zigzag encoded
+ *   string  text, then notes: varint (byte length << 1, low bit set for null) + UTF-8
+ * </pre>
+ * Later versions may only append fields to a record. The length prefix lets a reader skip
+ * the ones it does not know, so streams of any version are read. Streams without the magic
+ * are read as the legacy Gson JSON array.
+ */
+public final class TaskBinaryCodec {
+    static final int FORMAT_VERSION = 1;
+
+    private static final byte[] MAGIC = {'B', 'T', 'S', 'K'};
+    private static final int NO_CATEGORY = 0xFF;
+    private static final int FLAG_PINNED = 1;
+    private static final int FLAG_COMPLETED = 1 << 1;
+    private static final int FLAG_HAS_DUE_DATE = 1 << 2;
+    private static final int PRIORITY_SHIFT = 3;
+    private static final int MAX_PRIORITY = 0x0F;
+    // Set rather than cleared when the date is missing, so version 1 records, whose
+    // priorities never reached this bit, still read as having one.
+    private static final int FLAG_NO_CREATED_DATE = 1 << 7;
+
+    private static final MainActivity.TaskCategory[] CATEGORIES = MainActivity.TaskCategory.values();
+
+    private TaskBinaryCodec() {}
+
+    /** Writes the header and every task. The stream is flushed but not closed. */
+    public static void writeAll(OutputStream stream, List<TaskManager.EnhancedBubbleTask> tasks) throws IOException {
+        OutputStream out = stream instanceof BufferedOutputStream ? stream : new BufferedOutputStream(stream, 64 * 1024);
+        out.write(MAGIC);
+        out.write(FORMAT_VERSION);
+        ByteWriter record = new ByteWriter(256);
+        ByteWriter prefix = new ByteWriter(8);
+        for (TaskManager.EnhancedBubbleTask task : tasks) {
+            record.reset();
+            writeTask(record, task);
+            prefix.reset();
+            prefix.writeVarLong(record.size);
+            out.write(prefix.buffer, 0, prefix.size);
+            out.write(record.buffer, 0, record.size);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a stream written by {@link #writeAll}, or a legacy JSON task array.
+     */
+    public static List<TaskManager.EnhancedBubbleTask> readAll(InputStream stream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(stream, 64 * 1024);
+        in.mark(MAGIC.length + 1);
+        byte[] header = new byte[MAGIC.length + 1];
+        int headerLength = readFully(in, header);
+        if (headerLength < header.length || !hasMagic(header)) {
+            in.reset();
+            return TaskJsonAdapter.readAll(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>();
+        ByteReader record = new ByteReader(256);
+        while (true) {
+            long length = readVarLong(in);
+            if (length < 0) {
+                break;
+            }
+            record.fill(in, (int) length);
+            tasks.add(readTask(record));
+        }
+        return tasks;
+    }
+
+    /** Encodes a single task record without header or length prefix. */
+    public static byte[] encode(TaskManager.EnhancedBubbleTask task) {
+        ByteWriter record = new ByteWriter(128);
+        writeTask(record, task);
+        byte[] bytes = new byte[record.size];
+        System.arraycopy(record.buffer, 0, bytes, 0, record.size);
+        return bytes;
+    }
+
+    /** Decodes a record produced by {@link #encode}. */
+    public static TaskManager.EnhancedBubbleTask decode(byte[] bytes, int offset, int length) throws IOException {
+        return readTask(new ByteReader(bytes, offset, length));
+    }
+
+    private static void writeTask(ByteWriter out, TaskManager.EnhancedBubbleTask task) {
+        out.writeVarLong(task.getId());
+        out.writeByte(task.getCategory() != null ? task.getCategory().ordinal() : NO_CATEGORY);
+
+        int priority = Math.max(0, Math.min(MAX_PRIORITY, task.getPriority()));
+        int flags = priority << PRIORITY_SHIFT;
+        if (task.isPinned()) flags |= FLAG_PINNED;
+        if (task.isCompleted()) flags |= FLAG_COMPLETED;
+        if (task.getDueDate() != null) flags |= FLAG_HAS_DUE_DATE;
+        if (task.getCreatedDate() == null) flags |= FLAG_NO_CREATED_DATE;
+        out.writeByte(flags);
+
+        if (task.getCreatedDate() != null) {
+            out.writeLong(task.getCreatedDate().getTime());
+        }
+        if (task.getDueDate() != null) {
+            out.writeLong(task.getDueDate().getTime());
+        }
+        long reminderId = task.getReminderId();
+        out.writeVarLong((reminderId << 1) ^ (reminderId >> 63));
+        out.writeString(task.getText());
+        out.writeString(task.getNotes());
+    }
+
+    private static TaskManager.EnhancedBubbleTask readTask(ByteReader in) throws IOException {
+        long id = in.readVarLong();
+        int categoryOrdinal = in.readByte();
+        int flags = in.readByte();
+        long created = (flags & FLAG_NO_CREATED_DATE) == 0 ? in.readLong() : 0L;
+        long due = (flags & FLAG_HAS_DUE_DATE) != 0 ? in.readLong() : 0L;
+        long zigzag = in.readVarLong();
+        String text = in.readString();
+        String notes = in.readString();
+        // Anything left in the record belongs to a newer format version.
+
+        MainActivity.TaskCategory category = categoryOrdinal < CATEGORIES.length ? CATEGORIES[categoryOrdinal] : null;
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask(text, category);
+        task.setId(id);
+        task.setPinned((flags & FLAG_PINNED) != 0);
+        task.setCompleted((flags & FLAG_COMPLETED) != 0);
+        task.setPriority((flags >>> PRIORITY_SHIFT) & MAX_PRIORITY);
+        task.setCreatedDate((flags & FLAG_NO_CREATED_DATE) == 0 ? new Date(created) : null);
+        task.setDueDate((flags & FLAG_HAS_DUE_DATE) != 0 ? new Date(due) : null);
+        task.setReminderId((zigzag >>> 1) ^ -(zigzag & 1));
+        task.setNotes(notes != null ? notes : "");
+        return task;
+    }
+
+    private static boolean hasMagic(byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    // Returns -1 at a clean end of stream.
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated task record length");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Malformed task record length");
+            }
+        }
+    }
+
+    private static final class ByteWriter {
+        byte[] buffer;
+        int size;
+
+        ByteWriter(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+                System.arraycopy(buffer, 0, grown, 0, size);
+                buffer = grown;
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        // Null is stored as length 0 plus a marker bit: lengths are shifted left by one.
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong((long) bytes.length << 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+    }
+
+    private static final class ByteReader {
+        byte[] buffer;
+        int position;
+        int end;
+
+        ByteReader(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        ByteReader(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        void fill(InputStream in, int length) throws IOException {
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            if (readFully(in, length) < length) {
+                throw new EOFException("Truncated task record");
+            }
+            position = 0;
+            end = length;
+        }
+
+        private int readFully(InputStream in, int length) throws IOException {
+            int total = 0;
+            while (total < length) {
+                int read = in.read(buffer, total, length - total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+
+        private void require(int count) throws IOException {
+            if (position + count > end) {
+                throw new EOFException("Truncated task record");
+            }
+        }
+
+        int readByte() throws IOException {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readLong() throws IOException {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in task record");
+        }
+
+        String readString() throws IOException {
+            long header = readVarLong();
+            if ((header & 1) != 0) {
+                return null;
+            }
+            int length = (int) (header >>> 1);
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bubbletodo;
+
+import java.util.Objects;
+
+/**
+ * One task's change within a {@link TaskManager} transaction. Updates carry a mask of the
+ * fields that differ, so a listener can refresh only what actually changed.
+ */
+public final class TaskChange {
+    public enum Kind { INSERTED, REMOVED, UPDATED }
+
+    public static final int TEXT = 1;
+    public static final int CATEGORY = 1 << 1;
+    public static final int PINNED = 1 << 2;
+    public static final int COMPLETED = 1 << 3;
+    public static final int DUE_DATE = 1 << 4;
+    public static final int PRIORITY = 1 << 5;
+    public static final int NOTES = 1 << 6;
+    public static final int REMINDER = 1 << 7;
+    public static final int ALL_FIELDS = (1 << 8) - 1;
+
+    private final Kind kind;
+    private final long taskId;
+    private final TaskManager.EnhancedBubbleTask task;
+    private final int fields;
+
+    TaskChange(Kind kind, long taskId, TaskManager.EnhancedBubbleTask task, int fields) {
+        this.kind = kind;
+        this.taskId = taskId;
+        this.task = task;
+        this.fields = fields;
+    }
+
+    public Kind getKind() { return kind; }
+    public long getTaskId() { return taskId; }
+
+    /** The task after the change; null when it was removed. Do not modify it. */
+    public TaskManager.EnhancedBubbleTask getTask() { return task; }
+
+    /** The changed fields; every field for inserts and removals. */
+    public int getFields() { return fields; }
+
+    public boolean changed(int fieldMask) {
+        return (fields & fieldMask) != 0;
+    }
+
+    /**
+     * The change from {@code before} to {@code after}, either of which may be null, or null
+     * when nothing visible changed.
+     */
+    static TaskChange between(TaskManager.EnhancedBubbleTask before, TaskManager.EnhancedBubbleTask after) {
+        if (before == null) {
+            return after == null ? null : new TaskChange(Kind.INSERTED, after.getId(), after, ALL_FIELDS);
+        }
+        if (after == null) {
+            return new TaskChange(Kind.REMOVED, before.getId(), null, ALL_FIELDS);
+        }
+        int fields = diff(before, after);
+        return fields == 0 ? null : new TaskChange(Kind.UPDATED, after.getId(), after, fields);
+    }
+
+    /**
+     * Folds a later change to the same task into this one, so a transaction reports at most
+     * one change per task. Returns null if the two cancel out.
+     */
+    TaskChange then(TaskChange next) {
+        if (kind == Kind.INSERTED) {
+            return next.kind == Kind.REMOVED ? null : new TaskChange(Kind.INSERTED, taskId, next.task, ALL_FIELDS);
+        }
+        if (kind == Kind.REMOVED) {
+            // Removed and put back: report it as an update of every field.
+            return next.kind == Kind.REMOVED ? this : new TaskChange(Kind.UPDATED, taskId, next.task, ALL_FIELDS);
+        }
+        if (next.kind == Kind.UPDATED) {
+            return new TaskChange(Kind.UPDATED, taskId, next.task, fields | next.fields);
+        }
+        return next;
+    }
+
+    static int diff(TaskManager.EnhancedBubbleTask a, TaskManager.EnhancedBubbleTask b) {
+        int fields = 0;
+        if (!Objects.equals(a.getText(), b.getText())) fields |= TEXT;
+        if (a.getCategory() != b.getCategory()) fields |= CATEGORY;
+        if (a.isPinned() != b.isPinned()) fields |= PINNED;
+        if (a.isCompleted() != b.isCompleted()) fields |= COMPLETED;
+        if (!Objects.equals(a.getDueDate(), b.getDueDate())) fields |= DUE_DATE;
+        if (a.getPriority() != b.getPriority()) fields |= PRIORITY;
+        if (!Objects.equals(a.getNotes(), b.getNotes())) fields |= NOTES;
+        if (a.getReminderId() != b.getReminderId()) fields |= REMINDER;
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return kind + "(" + taskId + (kind == Kind.UPDATED ? ", fields=" + Integer.toBinaryString(fields) : "") + ")";
+    }
+}
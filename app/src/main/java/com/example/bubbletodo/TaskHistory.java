@@ -0,0 +1,145 @@
+package com.example.bubbletodo;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo/redo log for {@link TaskManager}. One step per transaction; a step holds, for each
+ * task it touched, the task's record before and after as {@link TaskBinaryCodec} bytes
+ * (null when the task did not exist). Undo and redo replay only those records, so a step
+ * costs O(tasks touched) no matter how large the list is.
+ *
+ * The log is capped by bytes rather than steps: the oldest steps are dropped once the
+ * encoded records exceed the budget. A step larger than the whole budget cannot be kept,
+ * and then nothing older can be undone either, since undo would skip over it. Not
+ * thread-safe; the manager calls it under its write lock.
+ */
+class TaskHistory {
+    static final int DEFAULT_BYTE_BUDGET = 64 * 1024;
+
+    // Rough per-delta cost of the object headers and array references.
+    private static final int DELTA_OVERHEAD = 48;
+
+    static final class Delta {
+        final long taskId;
+        final byte[] before;
+        final byte[] after;
+
+        Delta(long taskId, byte[] before, byte[] after) {
+            this.taskId = taskId;
+            this.before = before;
+            this.after = after;
+        }
+
+        /** The task as it was before (undo) or after (redo) the step, or null if absent. */
+        TaskManager.EnhancedBubbleTask decode(boolean undo) {
+            byte[] record = undo ? before : after;
+            if (record == null) {
+                return null;
+            }
+            try {
+                return TaskBinaryCodec.decode(record, 0, record.length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt history record", e);
+            }
+        }
+    }
+
+    static final class Step {
+        final List<Delta> deltas;
+        final int bytes;
+
+        Step(List<Delta> deltas, int bytes) {
+            this.deltas = deltas;
+            this.bytes = bytes;
+        }
+    }
+
+    private final int byteBudget;
+    private final ArrayDeque<Step> undoSteps = new ArrayDeque<>();
+    private final ArrayDeque<Step> redoSteps = new ArrayDeque<>();
+    private int undoBytes;
+    private int redoBytes;
+
+    private List<Delta> pending = new ArrayList<>();
+    private int pendingBytes;
+
+    TaskHistory(int byteBudget) {
+        this.byteBudget = byteBudget;
+    }
+
+    /** Adds a task change to the open step. Either side may be null. */
+    void record(TaskManager.EnhancedBubbleTask before, TaskManager.EnhancedBubbleTask after) {
+        long taskId = before != null ? before.getId() : after.getId();
+        byte[] beforeBytes = before != null ? TaskBinaryCodec.encode(before) : null;
+        byte[] afterBytes = after != null ? TaskBinaryCodec.encode(after) : null;
+        pending.add(new Delta(taskId, beforeBytes, afterBytes));
+        pendingBytes += DELTA_OVERHEAD + (beforeBytes != null ? beforeBytes.length : 0)
+                + (afterBytes != null ? afterBytes.length : 0);
+    }
+
+    /** Closes the open step. A new step makes the redo stack obsolete. */
+    void commit() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Step step = new Step(pending, pendingBytes);
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        redoSteps.clear();
+        redoBytes = 0;
+        if (step.bytes > byteBudget) {
+            undoSteps.clear();
+            undoBytes = 0;
+            return;
+        }
+        undoSteps.addLast(step);
+        undoBytes += step.bytes;
+        while (undoBytes > byteBudget) {
+            undoBytes -= undoSteps.removeFirst().bytes;
+        }
+    }
+
+    Step popUndo() {
+        Step step = undoSteps.pollLast();
+        if (step != null) {
+            undoBytes -= step.bytes;
+            redoSteps.addLast(step);
+            redoBytes += step.bytes;
+        }
+        return step;
+    }
+
+    Step popRedo() {
+        Step step = redoSteps.pollLast();
+        if (step != null) {
+            redoBytes -= step.bytes;
+            undoSteps.addLast(step);
+            undoBytes += step.bytes;
+        }
+        return step;
+    }
+
+    boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    int sizeInBytes() {
+        return undoBytes + redoBytes;
+    }
+
+    void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+        undoBytes = 0;
+        redoBytes = 0;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+    }
+}
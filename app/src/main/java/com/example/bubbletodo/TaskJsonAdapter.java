@@ -0,0 +1,176 @@
+package com.example.bubbletodo;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Hand-written Gson adapter for {@link TaskManager.EnhancedBubbleTask}. It reads and writes
+ * the same field names and date format Gson's reflective adapter produced, so existing
+ * blobs stay readable, but it never reflects over the task class.
+ *
+ * {@link #readAll(Reader)} and {@link #writeAll(Writer, List)} stream a task array token by
+ * token, so reading a blob never builds a JSON tree next to the tasks.
+ */
+public class TaskJsonAdapter extends TypeAdapter<TaskManager.EnhancedBubbleTask> {
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TEXT = "text";
+    private static final String FIELD_CATEGORY = "category";
+    private static final String FIELD_PINNED = "isPinned";
+    private static final String FIELD_COMPLETED = "isCompleted";
+    private static final String FIELD_CREATED_DATE = "createdDate";
+    private static final String FIELD_DUE_DATE = "dueDate";
+    private static final String FIELD_PRIORITY = "priority";
+    private static final String FIELD_NOTES = "notes";
+    private static final String FIELD_REMINDER_ID = "reminderId";
+
+    private static final TaskJsonAdapter INSTANCE = new TaskJsonAdapter();
+
+    // Gson's built-in date adapter, so dates keep the format older versions wrote.
+    private final TypeAdapter<Date> dateAdapter = new Gson().getAdapter(Date.class);
+
+    public static TaskJsonAdapter getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void write(JsonWriter out, TaskManager.EnhancedBubbleTask task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(FIELD_ID).value(task.getId());
+        if (task.getText() != null) {
+            out.name(FIELD_TEXT).value(task.getText());
+        }
+        if (task.getCategory() != null) {
+            out.name(FIELD_CATEGORY).value(task.getCategory().name());
+        }
+        out.name(FIELD_PINNED).value(task.isPinned());
+        out.name(FIELD_COMPLETED).value(task.isCompleted());
+        if (task.getCreatedDate() != null) {
+            out.name(FIELD_CREATED_DATE);
+            dateAdapter.write(out, task.getCreatedDate());
+        }
+        if (task.getDueDate() != null) {
+            out.name(FIELD_DUE_DATE);
+            dateAdapter.write(out, task.getDueDate());
+        }
+        out.name(FIELD_PRIORITY).value(task.getPriority());
+        if (task.getNotes() != null) {
+            out.name(FIELD_NOTES).value(task.getNotes());
+        }
+        out.name(FIELD_REMINDER_ID).value(task.getReminderId());
+        out.endObject();
+    }
+
+    @Override
+    public TaskManager.EnhancedBubbleTask read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        long id = 0;
+        String text = null;
+        MainActivity.TaskCategory category = null;
+        boolean pinned = false;
+        boolean completed = false;
+        Date createdDate = null;
+        Date dueDate = null;
+        int priority = 2;
+        String notes = null;
+        long reminderId = -1;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case FIELD_ID: id = in.nextLong(); break;
+                case FIELD_TEXT: text = in.nextString(); break;
+                case FIELD_CATEGORY: category = parseCategory(in.nextString()); break;
+                case FIELD_PINNED: pinned = in.nextBoolean(); break;
+                case FIELD_COMPLETED: completed = in.nextBoolean(); break;
+                case FIELD_CREATED_DATE: createdDate = readDate(in); break;
+                case FIELD_DUE_DATE: dueDate = readDate(in); break;
+                case FIELD_PRIORITY: priority = in.nextInt(); break;
+                case FIELD_NOTES: notes = in.nextString(); break;
+                case FIELD_REMINDER_ID: reminderId = in.nextLong(); break;
+                default: in.skipValue(); break;
+            }
+        }
+        in.endObject();
+
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask(text, category);
+        task.setId(id);
+        task.setPinned(pinned);
+        task.setCompleted(completed);
+        if (createdDate != null) {
+            task.setCreatedDate(createdDate);
+        }
+        task.setDueDate(dueDate);
+        task.setPriority(priority);
+        if (notes != null) {
+            task.setNotes(notes);
+        }
+        task.setReminderId(reminderId);
+        return task;
+    }
+
+    public static List<TaskManager.EnhancedBubbleTask> readAll(Reader reader) throws IOException {
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>();
+        JsonReader in = new JsonReader(reader);
+        if (in.peek() == JsonToken.NULL) {
+            return tasks;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            TaskManager.EnhancedBubbleTask task = INSTANCE.read(in);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        in.endArray();
+        return tasks;
+    }
+
+    public static void writeAll(Writer writer, List<TaskManager.EnhancedBubbleTask> tasks) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        out.beginArray();
+        for (TaskManager.EnhancedBubbleTask task : tasks) {
+            INSTANCE.write(out, task);
+        }
+        out.endArray();
+        out.flush();
+    }
+
+    // Dates were written in Gson's text format; epoch millis are accepted as well.
+    private Date readDate(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NUMBER) {
+            return new Date(in.nextLong());
+        }
+        return dateAdapter.read(in);
+    }
+
+    private static MainActivity.TaskCategory parseCategory(String name) {
+        try {
+            return MainActivity.TaskCategory.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -2,91 +2,750 @@ package com.example.bubbletodo;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import java.lang.reflect.Type;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
+/**
+ * Owns the task list. Loading and persistence run on a single I/O thread: mutations update
+ * the in-memory list immediately and are queued for a write-behind flush, so a burst of
+ * changes is persisted as one {@link TaskStore} batch and the caller's thread never touches
+ * JSON or disk. Tasks are stored in SQLite by default.
+ *
+ * Nothing waits for the initial load. Until it finishes the snapshot holds only the tasks
+ * added since startup; the loaded tasks are merged in when they arrive and delivered through
+ * {@link #whenLoaded}.
+ *
+ * Safe to use from any thread. Writers take a short lock and publish a new immutable
+ * {@link TaskSnapshot} through a volatile field; readers just read that field, so they never
+ * wait for writers and never copy the list.
+ *
+ * Every transaction that changes tasks is reported to the {@link ChangeListener}s as one
+ * batch of {@link TaskChange}s, in the order the transactions were published.
+ */
 public class TaskManager {
+    private static final String TAG = "TaskManager";
     private static final String PREFS_NAME = "bubble_tasks";
     private static final String TASKS_KEY = "saved_tasks";
+    private static final long WRITE_BEHIND_DELAY_MS = 500;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /** Changes a task in place; see {@link #update(long, Mutation)}. */
+    public interface Mutation {
+        void apply(EnhancedBubbleTask task);
+    }
+
+    /** Receives the changes of each transaction on the main thread. */
+    public interface ChangeListener {
+        void onTasksChanged(List<TaskChange> changes);
+    }
+
+    private static final ReminderScheduler.AlarmSink NO_ALARM = new ReminderScheduler.AlarmSink() {
+        @Override
+        public void setAlarm(long triggerAtMillis) {
+        }
+
+        @Override
+        public void cancelAlarm() {
+        }
+    };
+
+    private static TaskManager instance;
 
     private Context context;
     private SharedPreferences preferences;
-    private Gson gson;
-    private List<EnhancedBubbleTask> tasks;
+    private TaskStore store;
+
+    // Written only with writeLock held. Tasks are keyed by ID, so lookup and removal by ID
+    // are O(1); tasksById also serves getTask() without taking the lock.
+    private final Object writeLock = new Object();
+    private final TaskSnapshot.Writer writer = new TaskSnapshot.Writer();
+    private final Map<Long, EnhancedBubbleTask> tasksById = new ConcurrentHashMap<>();
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    private final ReminderScheduler reminders;
+    private final TaskHistory history = new TaskHistory(TaskHistory.DEFAULT_BYTE_BUDGET);
+    private boolean recordHistory = true;
+    // Both guarded by writeLock: whether the stored tasks were merged in, and whether the
+    // tasks were cleared before that, which makes the stored ones obsolete.
+    private boolean loadFinished;
+    private boolean clearedBeforeLoad;
+    // The open transaction's changes, at most one per task.
+    private final Map<Long, TaskChange> pendingChanges = new LinkedHashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private long version;
+    // New IDs start at the current time so an ID freed by a deletion is not handed out again
+    // after a restart.
+    private long nextTaskId = System.currentTimeMillis();
+
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+
+    private final ScheduledExecutorService ioExecutor;
+    private final Executor callbackExecutor;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    // Batches that failed in a row; guarded by pendingWrites.
+    private int failedBatches;
+
+    /** The process-wide manager, so every screen shares one task list and one I/O thread. */
+    public static synchronized TaskManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskManager(context.getApplicationContext());
+        }
+        return instance;
+    }
 
     public TaskManager(Context context) {
+        this(context, new SqliteTaskStore(context));
+    }
+
+    public TaskManager(Context context, TaskStore store) {
+        this(context, store, new Handler(Looper.getMainLooper())::post,
+                new ReminderScheduler(System::currentTimeMillis, new ReminderReceiver.Alarm(context)));
+    }
+
+    // Without a context there is nothing legacy to import; used by tests.
+    TaskManager(TaskStore store, Executor callbackExecutor) {
+        this(store, callbackExecutor, new ReminderScheduler(System::currentTimeMillis, NO_ALARM));
+    }
+
+    TaskManager(TaskStore store, Executor callbackExecutor, ReminderScheduler reminders) {
+        this(null, store, callbackExecutor, reminders);
+    }
+
+    private TaskManager(Context context, TaskStore store, Executor callbackExecutor,
+                        ReminderScheduler reminders) {
         this.context = context;
-        this.preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
-        this.tasks = new ArrayList<>();
-        loadTasks();
+        this.preferences = context != null
+                ? context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE) : null;
+        this.store = store;
+        this.callbackExecutor = callbackExecutor;
+        this.reminders = reminders;
+        this.ioExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TaskManager-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ioExecutor.execute(this::loadTasks);
+    }
+
+    /**
+     * Delivers the loaded tasks on the main thread once the background load finishes.
+     */
+    public void whenLoaded(Callback<TaskSnapshot> callback) {
+        ioExecutor.execute(() -> callbackExecutor.execute(() -> callback.onResult(snapshot)));
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The current tasks and indexes. Never blocks on writers; the result does not change
+     * when later mutations are published.
+     */
+    public TaskSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds a copy of the task, assigning {@code task} a stable ID first if it does not have
+     * one yet. Returns the ID.
+     */
+    public long addTask(EnhancedBubbleTask task) {
+        synchronized (writeLock) {
+            if (task.getId() == 0) {
+                task.setId(nextTaskId++);
+            }
+            EnhancedBubbleTask stored = task.copy();
+            apply(stored);
+            publish(PendingWrite.ADD, stored.getId(), stored);
+            return stored.getId();
+        }
+    }
+
+    /** Returns the task with the given ID, or null. */
+    public EnhancedBubbleTask getTask(long id) {
+        return tasksById.get(id);
+    }
+
+    /**
+     * Applies {@code mutation} to a copy of the task with the given ID, publishes it and
+     * persists that one record. Concurrent updates to the same task are applied one after
+     * another, so none is lost. Returns false if no such task exists.
+     */
+    public boolean update(long id, Mutation mutation) {
+        synchronized (writeLock) {
+            EnhancedBubbleTask current = tasksById.get(id);
+            if (current == null) {
+                return false;
+            }
+            EnhancedBubbleTask updated = current.copy();
+            mutation.apply(updated);
+            apply(updated);
+            publish(PendingWrite.UPDATE, id, updated);
+            return true;
+        }
     }
 
-    public void addTask(EnhancedBubbleTask task) {
-        tasks.add(task);
-        saveTasks();
+    /** Removes the task with the given ID. Returns false if no such task exists. */
+    public boolean remove(long id) {
+        synchronized (writeLock) {
+            if (!discard(id)) {
+                return false;
+            }
+            publish(PendingWrite.REMOVE, id, null);
+            return true;
+        }
     }
 
     public void removeTask(EnhancedBubbleTask task) {
-        tasks.remove(task);
-        saveTasks();
+        remove(task.getId());
     }
 
+    /** Stores the current state of {@code task}; prefer {@link #update(long, Mutation)}. */
     public void updateTask(EnhancedBubbleTask task) {
-        saveTasks();
+        synchronized (writeLock) {
+            if (!tasksById.containsKey(task.getId())) {
+                return;
+            }
+            EnhancedBubbleTask stored = task.copy();
+            apply(stored);
+            publish(PendingWrite.UPDATE, stored.getId(), stored);
+        }
+    }
+
+    /**
+     * Adds copies of all the tasks under one lock, as one published snapshot and one
+     * write-behind batch. Returns the assigned IDs in order.
+     */
+    public List<Long> addAll(Collection<? extends EnhancedBubbleTask> newTasks) {
+        List<Long> ids = new ArrayList<>(newTasks.size());
+        List<PendingWrite> writes = new ArrayList<>(newTasks.size());
+        synchronized (writeLock) {
+            for (EnhancedBubbleTask task : newTasks) {
+                if (task.getId() == 0) {
+                    task.setId(nextTaskId++);
+                }
+                EnhancedBubbleTask stored = task.copy();
+                apply(stored);
+                writes.add(new PendingWrite(PendingWrite.ADD, stored.getId(), stored));
+                ids.add(stored.getId());
+            }
+            publishAll(writes);
+        }
+        return ids;
+    }
+
+    /** Removes every task matching {@code filter} as one batch. Returns how many were removed. */
+    public int removeIf(Predicate<? super EnhancedBubbleTask> filter) {
+        List<PendingWrite> writes = new ArrayList<>();
+        synchronized (writeLock) {
+            for (EnhancedBubbleTask task : snapshot.getAll()) {
+                if (filter.test(task) && discard(task.getId())) {
+                    writes.add(new PendingWrite(PendingWrite.REMOVE, task.getId(), null));
+                }
+            }
+            publishAll(writes);
+        }
+        return writes.size();
+    }
+
+    /**
+     * Applies {@code mutation} to each listed task as one batch; unknown IDs are skipped.
+     * Returns how many tasks were updated.
+     */
+    public int updateAll(Collection<Long> ids, Mutation mutation) {
+        List<PendingWrite> writes = new ArrayList<>(ids.size());
+        synchronized (writeLock) {
+            for (long id : ids) {
+                EnhancedBubbleTask current = tasksById.get(id);
+                if (current == null) {
+                    continue;
+                }
+                EnhancedBubbleTask updated = current.copy();
+                mutation.apply(updated);
+                apply(updated);
+                writes.add(new PendingWrite(PendingWrite.UPDATE, id, updated));
+            }
+            publishAll(writes);
+        }
+        return writes.size();
+    }
+
+    /** Removes the listed tasks as one batch; unknown IDs are skipped. Returns how many were removed. */
+    public int removeAll(Collection<Long> ids) {
+        List<PendingWrite> writes = new ArrayList<>(ids.size());
+        synchronized (writeLock) {
+            for (long id : ids) {
+                if (discard(id)) {
+                    writes.add(new PendingWrite(PendingWrite.REMOVE, id, null));
+                }
+            }
+            publishAll(writes);
+        }
+        return writes.size();
+    }
+
+    public int completeAll(Collection<Long> ids) {
+        return updateAll(ids, task -> task.setCompleted(true));
+    }
+
+    /**
+     * Reverts the most recent transaction, e.g. a whole bulk removal, and returns the IDs of
+     * the tasks it touched. Returns an empty list if there is nothing to undo. Clearing all
+     * tasks also clears the history.
+     */
+    public List<Long> undo() {
+        synchronized (writeLock) {
+            TaskHistory.Step step = history.popUndo();
+            return step != null ? replay(step, true) : Collections.emptyList();
+        }
+    }
+
+    /** Re-applies the most recently undone transaction; see {@link #undo()}. */
+    public List<Long> redo() {
+        synchronized (writeLock) {
+            TaskHistory.Step step = history.popRedo();
+            return step != null ? replay(step, false) : Collections.emptyList();
+        }
+    }
+
+    /** False after a transaction too large for the history, e.g. clearing a huge list. */
+    public boolean canUndo() {
+        synchronized (writeLock) {
+            return history.canUndo();
+        }
+    }
+
+    public boolean canRedo() {
+        synchronized (writeLock) {
+            return history.canRedo();
+        }
+    }
+
+    public Collection<EnhancedBubbleTask> getAllTasks() {
+        return snapshot().getAll();
+    }
+
+    /** Tasks in {@code category}, in insertion order, as of the current snapshot. */
+    public Collection<EnhancedBubbleTask> getTasksByCategory(MainActivity.TaskCategory category) {
+        return snapshot().getByCategory(category);
+    }
+
+    public Collection<EnhancedBubbleTask> getPinnedTasks() {
+        return snapshot().getPinned();
+    }
+
+    public Collection<EnhancedBubbleTask> getCompletedTasks() {
+        return snapshot().getCompleted();
+    }
+
+    /**
+     * Tasks whose text or notes contain a word starting with each word of {@code query},
+     * e.g. "gro mi" finds "Buy groceries and milk".
+     */
+    public List<EnhancedBubbleTask> search(String query) {
+        List<EnhancedBubbleTask> results = new ArrayList<>();
+        for (Long id : searchIndex.search(query)) {
+            EnhancedBubbleTask task = tasksById.get(id);
+            if (task != null) {
+                results.add(task);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Removes the reminders that are due now, or within the coalescing window, and returns
+     * their tasks. Each task is marked so its reminder is not shown again for the same due date.
+     * Waits for the initial load, so call it off the main thread.
+     */
+    public List<EnhancedBubbleTask> takeDueReminders() {
+        awaitLoaded();
+        List<EnhancedBubbleTask> due = new ArrayList<>();
+        synchronized (writeLock) {
+            // Delivery bookkeeping is not something the user should be able to undo.
+            recordHistory = false;
+            try {
+                for (long id : reminders.fireDue()) {
+                    update(id, task -> {
+                        if (task.getDueDate() != null) {
+                            task.setReminderId(task.getDueDate().getTime());
+                        }
+                    });
+                    EnhancedBubbleTask task = tasksById.get(id);
+                    if (task != null) {
+                        due.add(task);
+                    }
+                }
+            } finally {
+                recordHistory = true;
+            }
+        }
+        return due;
+    }
+
+    public void clearAllTasks() {
+        synchronized (writeLock) {
+            clearedBeforeLoad = !loadFinished;
+            for (EnhancedBubbleTask task : tasksById.values()) {
+                track(TaskChange.between(task, null));
+            }
+            writer.clear();
+            tasksById.clear();
+            searchIndex.clear();
+            reminders.clear();
+            history.clear();
+            publish(PendingWrite.CLEAR, 0, null);
+        }
+    }
+
+    /**
+     * Writes every queued mutation now instead of waiting for the write-behind delay. Call
+     * from {@code onPause}; the returned future completes once the store has been written.
+     */
+    public Future<?> flush() {
+        synchronized (pendingWrites) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+        return ioExecutor.submit(this::writePending);
+    }
+
+    /**
+     * Flushes pending writes and stops the I/O thread.
+     */
+    public void close() {
+        flush();
+        ioExecutor.execute(store::close);
+        ioExecutor.shutdown();
+    }
+
+    /** Blocks until the stored tasks have been merged in; never call on the main thread. */
+    void awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A task has a pending reminder while it is open and has a due date whose reminder has
+    // not been shown yet; reminderId holds the due time that was last reminded.
+    private void syncReminder(EnhancedBubbleTask task) {
+        Date dueDate = task.getDueDate();
+        if (dueDate != null && !task.isCompleted() && task.getReminderId() != dueDate.getTime()) {
+            reminders.schedule(task.getId(), dueDate.getTime());
+        } else {
+            reminders.cancel(task.getId());
+        }
+    }
+
+    // The helpers below are called with writeLock held.
+
+    private void apply(EnhancedBubbleTask task) {
+        EnhancedBubbleTask previous = tasksById.put(task.getId(), task);
+        if (recordHistory) {
+            history.record(previous, task);
+        }
+        track(TaskChange.between(previous, task));
+        writer.put(task);
+        searchIndex.put(task);
+        syncReminder(task);
+    }
+
+    private boolean discard(long id) {
+        EnhancedBubbleTask previous = tasksById.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        if (recordHistory) {
+            history.record(previous, null);
+        }
+        track(TaskChange.between(previous, null));
+        writer.remove(id);
+        searchIndex.remove(id);
+        reminders.cancel(id);
+        return true;
+    }
+
+    private void track(TaskChange change) {
+        if (change == null) {
+            return;
+        }
+        TaskChange earlier = pendingChanges.remove(change.getTaskId());
+        TaskChange merged = earlier != null ? earlier.then(change) : change;
+        if (merged != null) {
+            pendingChanges.put(change.getTaskId(), merged);
+        }
+    }
+
+    // Restores each touched task to its recorded state, undoing in reverse order, as one
+    // batch that is not itself recorded.
+    private List<Long> replay(TaskHistory.Step step, boolean undo) {
+        int count = step.deltas.size();
+        List<Long> ids = new ArrayList<>(count);
+        List<PendingWrite> writes = new ArrayList<>(count);
+        recordHistory = false;
+        try {
+            for (int i = 0; i < count; i++) {
+                TaskHistory.Delta delta = step.deltas.get(undo ? count - 1 - i : i);
+                EnhancedBubbleTask task = delta.decode(undo);
+                if (task != null) {
+                    keepReminderBookkeeping(task, tasksById.get(task.getId()));
+                }
+                if (task == null) {
+                    if (discard(delta.taskId)) {
+                        writes.add(new PendingWrite(PendingWrite.REMOVE, delta.taskId, null));
+                    }
+                } else {
+                    int op = tasksById.containsKey(task.getId()) ? PendingWrite.UPDATE : PendingWrite.ADD;
+                    apply(task);
+                    writes.add(new PendingWrite(op, task.getId(), task));
+                }
+                ids.add(delta.taskId);
+            }
+            publishAll(writes);
+        } finally {
+            recordHistory = true;
+        }
+        return ids;
+    }
+
+    // Reminder delivery is not recorded, so a restored record may predate a reminder that has
+    // been shown since. Keep the live reminderId unless the record itself already marks its
+    // due date as reminded, so no reminder is shown twice.
+    private static void keepReminderBookkeeping(EnhancedBubbleTask restored, EnhancedBubbleTask current) {
+        Date dueDate = restored.getDueDate();
+        boolean remindedInRecord = dueDate != null && restored.getReminderId() == dueDate.getTime();
+        if (current != null && !remindedInRecord) {
+            restored.setReminderId(current.getReminderId());
+        }
     }
 
-    public List<EnhancedBubbleTask> getAllTasks() {
-        return new ArrayList<>(tasks);
+    private void publish(int op, long taskId, EnhancedBubbleTask task) {
+        publishAll(Collections.singletonList(new PendingWrite(op, taskId, task)));
     }
 
-    public List<EnhancedBubbleTask> getTasksByCategory(MainActivity.TaskCategory category) {
-        List<EnhancedBubbleTask> categoryTasks = new ArrayList<>();
-        for (EnhancedBubbleTask task : tasks) {
-            if (task.getCategory() == category) {
-                categoryTasks.add(task);
+    // Publishes one snapshot for the whole batch and queues its writes in the same order.
+    private void publishAll(List<PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        snapshot = writer.publish(++version);
+        history.commit();
+        dispatchChanges();
+        synchronized (pendingWrites) {
+            pendingWrites.addAll(writes);
+            if (scheduledFlush == null) {
+                scheduledFlush = ioExecutor.schedule(this::writePending,
+                        WRITE_BEHIND_DELAY_MS, TimeUnit.MILLISECONDS);
             }
         }
-        return categoryTasks;
     }
 
-    public List<EnhancedBubbleTask> getPinnedTasks() {
-        List<EnhancedBubbleTask> pinnedTasks = new ArrayList<>();
-        for (EnhancedBubbleTask task : tasks) {
-            if (task.isPinned()) {
-                pinnedTasks.add(task);
+    // Posting under writeLock keeps batches in publication order on the callback thread.
+    private void dispatchChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<TaskChange> changes = Collections.unmodifiableList(new ArrayList<>(pendingChanges.values()));
+        pendingChanges.clear();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        callbackExecutor.execute(() -> {
+            for (ChangeListener listener : listeners) {
+                listener.onTasksChanged(changes);
             }
+        });
+    }
+
+    // Runs on the I/O thread: drains the queue into the store as a single batch.
+    private void writePending() {
+        List<PendingWrite> batch;
+        synchronized (pendingWrites) {
+            scheduledFlush = null;
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingWrites);
+            pendingWrites.clear();
+        }
+
+        long start = Metrics.now();
+        try {
+            for (PendingWrite write : batch) {
+                switch (write.op) {
+                    case PendingWrite.ADD: store.add(write.task); break;
+                    case PendingWrite.UPDATE: store.update(write.task); break;
+                    case PendingWrite.REMOVE: store.remove(write.taskId); break;
+                    case PendingWrite.CLEAR: store.clear(); break;
+                }
+            }
+            store.flush();
+            Metrics.TASK_WRITES.add(batch.size());
+            synchronized (pendingWrites) {
+                failedBatches = 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Failed to write tasks", e);
+            retryLater(batch);
         }
-        return pinnedTasks;
+        Metrics.TASK_PERSIST.recordSince(start);
     }
 
-    private void saveTasks() {
-        String tasksJson = gson.toJson(tasks);
-        preferences.edit().putString(TASKS_KEY, tasksJson).apply();
+    // Runs on the I/O thread: abandons the partly written batch and queues it again ahead of
+    // the writes made since, retrying after a delay that doubles with each failure.
+    private void retryLater(List<PendingWrite> batch) {
+        try {
+            store.rollback();
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Failed to roll back tasks", e);
+        }
+        synchronized (pendingWrites) {
+            pendingWrites.addAll(0, batch);
+            failedBatches++;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (ioExecutor.isShutdown()) {
+                return;
+            }
+            long delay = Math.min(MAX_RETRY_DELAY_MS,
+                    WRITE_BEHIND_DELAY_MS << Math.min(failedBatches, 10));
+            scheduledFlush = ioExecutor.schedule(this::writePending, delay, TimeUnit.MILLISECONDS);
+        }
     }
 
+    // Runs on the I/O thread.
     private void loadTasks() {
+        List<EnhancedBubbleTask> tasks;
+        long start = Metrics.now();
+        try {
+            tasks = store.isEmpty() ? importLegacyTasks() : store.load();
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Failed to load tasks", e);
+            tasks = new ArrayList<>();
+        }
+        Metrics.TASK_LOAD.recordSince(start);
+
+        Map<Long, EnhancedBubbleTask> renumbered = new LinkedHashMap<>();
+        synchronized (writeLock) {
+            if (clearedBeforeLoad) {
+                tasks = Collections.emptyList();
+            }
+            for (EnhancedBubbleTask task : tasks) {
+                nextTaskId = Math.max(nextTaskId, task.getId() + 1);
+            }
+            recordHistory = false;
+            for (EnhancedBubbleTask task : tasks) {
+                // A task added before the load may have been given a stored task's ID; the
+                // caller already holds that ID, so the stored task moves instead.
+                if (tasksById.containsKey(task.getId())) {
+                    long storedId = task.getId();
+                    task.setId(nextTaskId++);
+                    renumbered.put(storedId, task);
+                }
+                apply(task);
+            }
+            recordHistory = true;
+            loadFinished = true;
+            // The loaded tasks are delivered through whenLoaded, not as inserts.
+            pendingChanges.clear();
+            snapshot = writer.publish(++version);
+        }
+        if (!renumbered.isEmpty()) {
+            moveRenumbered(renumbered);
+        }
+        loaded.countDown();
+    }
+
+    // Runs on the I/O thread before any queued write, so the old rows are still the stored
+    // tasks' and the queued adds then take their IDs.
+    private void moveRenumbered(Map<Long, EnhancedBubbleTask> tasksByStoredId) {
+        try {
+            for (Map.Entry<Long, EnhancedBubbleTask> entry : tasksByStoredId.entrySet()) {
+                store.remove(entry.getKey());
+                store.add(entry.getValue());
+            }
+            store.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to renumber tasks", e);
+        }
+    }
+
+    // One-time import into an empty store from the old single-string preference blob.
+    private List<EnhancedBubbleTask> importLegacyTasks() throws IOException {
+        if (context == null) {
+            return new ArrayList<>();
+        }
         String tasksJson = preferences.getString(TASKS_KEY, "");
-        if (!tasksJson.isEmpty()) {
-            Type listType = new TypeToken<List<EnhancedBubbleTask>>(){}.getType();
-            tasks = gson.fromJson(tasksJson, listType);
-            if (tasks == null) {
-                tasks = new ArrayList<>();
+        if (tasksJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<EnhancedBubbleTask> legacyTasks = TaskJsonAdapter.readAll(new StringReader(tasksJson));
+        synchronized (writeLock) {
+            for (EnhancedBubbleTask task : legacyTasks) {
+                task.setId(nextTaskId++);
             }
         }
+        store.replaceAll(legacyTasks);
+        preferences.edit().remove(TASKS_KEY).apply();
+        return legacyTasks;
     }
 
-    public void clearAllTasks() {
-        tasks.clear();
-        saveTasks();
+    private static class PendingWrite {
+        static final int ADD = 0;
+        static final int UPDATE = 1;
+        static final int REMOVE = 2;
+        static final int CLEAR = 3;
+
+        final int op;
+        final long taskId;
+        final EnhancedBubbleTask task;
+
+        PendingWrite(int op, long taskId, EnhancedBubbleTask task) {
+            this.op = op;
+            this.taskId = taskId;
+            this.task = task;
+        }
     }
 
     // Enhanced BubbleTask with more features
     public static class EnhancedBubbleTask {
+        private long id;
         private String text;
         private MainActivity.TaskCategory category;
         private boolean isPinned;
@@ -108,7 +767,22 @@ public class TaskManager {
             this.reminderId = -1;
         }
 
+        public EnhancedBubbleTask copy() {
+            EnhancedBubbleTask copy = new EnhancedBubbleTask(text, category);
+            copy.id = id;
+            copy.isPinned = isPinned;
+            copy.isCompleted = isCompleted;
+            copy.createdDate = createdDate;
+            copy.dueDate = dueDate;
+            copy.priority = priority;
+            copy.notes = notes;
+            copy.reminderId = reminderId;
+            return copy;
+        }
+
         // Getters and setters
+        public long getId() { return id; }
+        void setId(long id) { this.id = id; }
         public String getText() { return text; }
         public void setText(String text) { this.text = text; }
         public MainActivity.TaskCategory getCategory() { return category; }
@@ -118,6 +792,7 @@ public class TaskManager {
         public boolean isCompleted() { return isCompleted; }
         public void setCompleted(boolean completed) { isCompleted = completed; }
         public Date getCreatedDate() { return createdDate; }
+        void setCreatedDate(Date createdDate) { this.createdDate = createdDate; }
         public Date getDueDate() { return dueDate; }
         public void setDueDate(Date dueDate) { this.dueDate = dueDate; }
         public int getPriority() { return priority; }
@@ -0,0 +1,187 @@
+package com.example.bubbletodo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from the words in a task's text and notes to task IDs. Terms are kept
+ * sorted, so a prefix query is a range scan over the matching terms rather than a scan over
+ * every task. Each task's terms are remembered, so an edit only touches the terms that
+ * changed.
+ */
+public class TaskSearchIndex {
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Indexes the task, replacing whatever was indexed for its ID before. */
+    public void put(TaskManager.EnhancedBubbleTask task) {
+        Set<String> terms = new HashSet<>();
+        tokenize(task.getText(), terms);
+        tokenize(task.getNotes(), terms);
+
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = termsById.put(task.getId(), terms);
+            if (previous != null) {
+                for (String term : previous) {
+                    if (!terms.contains(term)) {
+                        removePosting(term, task.getId());
+                    }
+                }
+            }
+            for (String term : terms) {
+                if (previous == null || !previous.contains(term)) {
+                    postings.computeIfAbsent(term, t -> new HashSet<>()).add(task.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Set<String> terms = termsById.remove(id);
+            if (terms != null) {
+                for (String term : terms) {
+                    removePosting(term, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the tasks that contain, for every word in {@code query}, a word starting with it.
+     * An empty query matches nothing.
+     */
+    public Set<Long> search(String query) {
+        return search(query, null);
+    }
+
+    /**
+     * As {@link #search(String)}; {@code cost}, if given, receives in its first element how
+     * many postings and task terms were examined.
+     *
+     * Only the prefix with the fewest postings is expanded; its tasks are then checked
+     * against the other prefixes through their own terms, so the work is bounded by the
+     * narrowest prefix rather than the broadest.
+     */
+    Set<Long> search(String query, int[] cost) {
+        List<String> prefixes = new ArrayList<>();
+        tokenize(query, prefixes);
+        if (prefixes.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        lock.readLock().lock();
+        try {
+            SortedMap<String, Set<Long>> narrowest = null;
+            String narrowestPrefix = null;
+            int narrowestCount = Integer.MAX_VALUE;
+            for (String prefix : prefixes) {
+                SortedMap<String, Set<Long>> range = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+                int count = 0;
+                for (Set<Long> ids : range.values()) {
+                    count += ids.size();
+                }
+                if (count == 0) {
+                    return Collections.emptySet();
+                }
+                if (count < narrowestCount) {
+                    narrowest = range;
+                    narrowestPrefix = prefix;
+                    narrowestCount = count;
+                }
+            }
+
+            int examined = narrowestCount;
+            Set<Long> result = new HashSet<>();
+            for (Set<Long> ids : narrowest.values()) {
+                for (Long id : ids) {
+                    if (result.contains(id)) {
+                        continue;
+                    }
+                    Set<String> terms = termsById.get(id);
+                    boolean matchesAll = true;
+                    for (String prefix : prefixes) {
+                        if (prefix.equals(narrowestPrefix)) {
+                            continue;
+                        }
+                        examined += terms.size();
+                        if (!hasTermStartingWith(terms, prefix)) {
+                            matchesAll = false;
+                            break;
+                        }
+                    }
+                    if (matchesAll) {
+                        result.add(id);
+                    }
+                }
+            }
+            if (cost != null) {
+                cost[0] = examined;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean hasTermStartingWith(Set<String> terms, String prefix) {
+        for (String term : terms) {
+            if (term.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removePosting(String term, long id) {
+        Set<Long> ids = postings.get(term);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    // Lower-cased runs of letters and digits.
+    static void tokenize(String text, Collection<String> out) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.bubbletodo;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, versioned view of every task in a {@link TaskManager}, with the category,
+ * pinned and completed indexes taken at the same instant. Readers can hold and iterate a
+ * snapshot on any thread while writers publish newer ones.
+ *
+ * Snapshots share structure: each list is a persistent 32-way trie, so a mutation copies only
+ * the path to the slot it changes and publishing costs O(log n), not a copy of the list.
+ * The tasks inside a snapshot must not be modified; change them through
+ * {@link TaskManager#update(long, TaskManager.Mutation)}.
+ */
+public final class TaskSnapshot {
+    private static final MainActivity.TaskCategory[] CATEGORIES = MainActivity.TaskCategory.values();
+
+    static final TaskSnapshot EMPTY = new Writer().publish(0);
+
+    private final long version;
+    private final SlotVector all;
+    private final SlotVector[] byCategory;
+    private final SlotVector pinned;
+    private final SlotVector completed;
+
+    private TaskSnapshot(long version, SlotVector all, SlotVector[] byCategory,
+                         SlotVector pinned, SlotVector completed) {
+        this.version = version;
+        this.all = all;
+        this.byCategory = byCategory;
+        this.pinned = pinned;
+        this.completed = completed;
+    }
+
+    /** Increases by one with every published mutation. */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return all.liveCount;
+    }
+
+    public boolean isEmpty() {
+        return all.liveCount == 0;
+    }
+
+    /** Every task, in insertion order. */
+    public Collection<TaskManager.EnhancedBubbleTask> getAll() {
+        return all.view();
+    }
+
+    public Collection<TaskManager.EnhancedBubbleTask> getByCategory(MainActivity.TaskCategory category) {
+        return byCategory[category.ordinal()].view();
+    }
+
+    public Collection<TaskManager.EnhancedBubbleTask> getPinned() {
+        return pinned.view();
+    }
+
+    public Collection<TaskManager.EnhancedBubbleTask> getCompleted() {
+        return completed.view();
+    }
+
+    /**
+     * The mutable side, owned by whichever thread holds the manager's write lock. It keeps
+     * each task's slot in every list so a change touches only the lists it affects.
+     */
+    static final class Writer {
+        private static final int ALL = 0;
+        private static final int CATEGORY = 1;
+        private static final int PINNED = 2;
+        private static final int COMPLETED = 3;
+
+        private final Map<Long, Slots> slotsById = new HashMap<>();
+        private SlotVector all = SlotVector.EMPTY;
+        private final SlotVector[] byCategory = new SlotVector[CATEGORIES.length];
+        private SlotVector pinned = SlotVector.EMPTY;
+        private SlotVector completed = SlotVector.EMPTY;
+
+        Writer() {
+            clear();
+        }
+
+        /** Adds the task, or replaces the task with the same ID in place. */
+        void put(TaskManager.EnhancedBubbleTask task) {
+            Slots slots = slotsById.get(task.getId());
+            if (slots == null) {
+                slots = new Slots();
+                slotsById.put(task.getId(), slots);
+            } else if (slots.task == task) {
+                return;
+            }
+            TaskManager.EnhancedBubbleTask previous = slots.task;
+            slots.task = task;
+
+            all = place(all, slots, ALL);
+
+            int oldCategory = previous != null && previous.getCategory() != null
+                    ? previous.getCategory().ordinal() : -1;
+            int newCategory = task.getCategory() != null ? task.getCategory().ordinal() : -1;
+            if (oldCategory >= 0 && oldCategory != newCategory) {
+                byCategory[oldCategory] = vacate(byCategory[oldCategory], slots, CATEGORY);
+            }
+            if (newCategory >= 0) {
+                byCategory[newCategory] = place(byCategory[newCategory], slots, CATEGORY);
+            }
+
+            pinned = task.isPinned() ? place(pinned, slots, PINNED) : vacate(pinned, slots, PINNED);
+            completed = task.isCompleted()
+                    ? place(completed, slots, COMPLETED) : vacate(completed, slots, COMPLETED);
+        }
+
+        boolean remove(long id) {
+            Slots slots = slotsById.remove(id);
+            if (slots == null) {
+                return false;
+            }
+            all = vacate(all, slots, ALL);
+            if (slots.task.getCategory() != null) {
+                int category = slots.task.getCategory().ordinal();
+                byCategory[category] = vacate(byCategory[category], slots, CATEGORY);
+            }
+            pinned = vacate(pinned, slots, PINNED);
+            completed = vacate(completed, slots, COMPLETED);
+            return true;
+        }
+
+        void clear() {
+            slotsById.clear();
+            all = SlotVector.EMPTY;
+            for (int i = 0; i < byCategory.length; i++) {
+                byCategory[i] = SlotVector.EMPTY;
+            }
+            pinned = SlotVector.EMPTY;
+            completed = SlotVector.EMPTY;
+        }
+
+        TaskSnapshot publish(long version) {
+            return new TaskSnapshot(version, all, byCategory.clone(), pinned, completed);
+        }
+
+        private static SlotVector place(SlotVector vector, Slots slots, int list) {
+            int slot = slots.position[list];
+            if (slot >= 0) {
+                return vector.set(slot, slots.task);
+            }
+            slots.position[list] = vector.slotCount;
+            return vector.append(slots.task);
+        }
+
+        private SlotVector vacate(SlotVector vector, Slots slots, int list) {
+            int slot = slots.position[list];
+            if (slot < 0) {
+                return vector;
+            }
+            slots.position[list] = -1;
+            vector = vector.set(slot, null);
+            return vector.needsCompaction() ? compact(vector, list) : vector;
+        }
+
+        // Drops the holes left by removals once they outnumber the live entries.
+        private SlotVector compact(SlotVector vector, int list) {
+            SlotVector compacted = SlotVector.EMPTY;
+            for (TaskManager.EnhancedBubbleTask task : vector.view()) {
+                slotsById.get(task.getId()).position[list] = compacted.slotCount;
+                compacted = compacted.append(task);
+            }
+            return compacted;
+        }
+    }
+
+    private static final class Slots {
+        TaskManager.EnhancedBubbleTask task;
+        final int[] position = {-1, -1, -1, -1};
+    }
+
+    /**
+     * Persistent vector of task slots; removed tasks leave a null hole until compaction.
+     */
+    static final class SlotVector {
+        private static final int BITS = 5;
+        private static final int WIDTH = 1 << BITS;
+        private static final int MASK = WIDTH - 1;
+
+        static final SlotVector EMPTY = new SlotVector(new Object[WIDTH], 0, 0, 0);
+
+        private final Object[] root;
+        private final int shift;
+        final int slotCount;
+        final int liveCount;
+
+        private SlotVector(Object[] root, int shift, int slotCount, int liveCount) {
+            this.root = root;
+            this.shift = shift;
+            this.slotCount = slotCount;
+            this.liveCount = liveCount;
+        }
+
+        TaskManager.EnhancedBubbleTask get(int slot) {
+            return (TaskManager.EnhancedBubbleTask) leafFor(slot)[slot & MASK];
+        }
+
+        SlotVector set(int slot, TaskManager.EnhancedBubbleTask task) {
+            TaskManager.EnhancedBubbleTask previous = get(slot);
+            int live = liveCount + (task != null ? 1 : 0) - (previous != null ? 1 : 0);
+            return new SlotVector(setIn(root, shift, slot, task), shift, slotCount, live);
+        }
+
+        SlotVector append(TaskManager.EnhancedBubbleTask task) {
+            Object[] newRoot = root;
+            int newShift = shift;
+            if (slotCount == 1 << (shift + BITS)) {
+                newRoot = new Object[WIDTH];
+                newRoot[0] = root;
+                newShift += BITS;
+            }
+            return new SlotVector(setIn(newRoot, newShift, slotCount, task), newShift,
+                    slotCount + 1, liveCount + (task != null ? 1 : 0));
+        }
+
+        boolean needsCompaction() {
+            return slotCount > WIDTH && liveCount * 2 < slotCount;
+        }
+
+        Collection<TaskManager.EnhancedBubbleTask> view() {
+            return new View(this);
+        }
+
+        private Object[] leafFor(int slot) {
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                node = (Object[]) node[(slot >>> level) & MASK];
+            }
+            return node;
+        }
+
+        private static Object[] setIn(Object[] node, int level, int slot, Object value) {
+            Object[] copy = node != null ? node.clone() : new Object[WIDTH];
+            if (level == 0) {
+                copy[slot & MASK] = value;
+            } else {
+                int child = (slot >>> level) & MASK;
+                copy[child] = setIn((Object[]) copy[child], level - BITS, slot, value);
+            }
+            return copy;
+        }
+    }
+
+    private static final class View extends AbstractCollection<TaskManager.EnhancedBubbleTask> {
+        private final SlotVector vector;
+
+        View(SlotVector vector) {
+            this.vector = vector;
+        }
+
+        @Override
+        public int size() {
+            return vector.liveCount;
+        }
+
+        @Override
+        public Iterator<TaskManager.EnhancedBubbleTask> iterator() {
+            return new Iterator<TaskManager.EnhancedBubbleTask>() {
+                private Object[] leaf;
+                private int slot = -1;
+                private TaskManager.EnhancedBubbleTask next = advance();
+
+                private TaskManager.EnhancedBubbleTask advance() {
+                    while (++slot < vector.slotCount) {
+                        if (leaf == null || (slot & SlotVector.MASK) == 0) {
+                            leaf = vector.leafFor(slot);
+                        }
+                        Object task = leaf[slot & SlotVector.MASK];
+                        if (task != null) {
+                            return (TaskManager.EnhancedBubbleTask) task;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public TaskManager.EnhancedBubbleTask next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    TaskManager.EnhancedBubbleTask result = next;
+                    next = advance();
+                    return result;
+                }
+            };
+        }
+    }
+}
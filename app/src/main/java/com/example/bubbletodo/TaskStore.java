@@ -0,0 +1,36 @@
+package com.example.bubbletodo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Persistence backend for {@link TaskManager}. Every method is called from the manager's
+ * single I/O thread; the mutations issued between two {@link #flush()} calls form one batch.
+ */
+public interface TaskStore {
+    boolean isEmpty() throws IOException;
+
+    List<TaskManager.EnhancedBubbleTask> load() throws IOException;
+
+    void add(TaskManager.EnhancedBubbleTask task) throws IOException;
+
+    void update(TaskManager.EnhancedBubbleTask task) throws IOException;
+
+    void remove(long taskId) throws IOException;
+
+    void clear() throws IOException;
+
+    /** Replaces the whole stored list, used when importing from an older format. */
+    void replaceAll(List<TaskManager.EnhancedBubbleTask> tasks) throws IOException;
+
+    /** Makes every mutation since the previous flush durable. */
+    void flush() throws IOException;
+
+    /**
+     * Abandons the mutations since the previous flush after one of them failed, so none of
+     * them is made durable by a later flush. The manager then writes the whole batch again.
+     */
+    void rollback() throws IOException;
+
+    void close();
+}
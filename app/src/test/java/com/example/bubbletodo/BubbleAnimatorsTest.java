@@ -0,0 +1,157 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BubbleAnimatorsTest {
+    private BubbleAnimators animators;
+
+    // Runs no frames; start, end, cancel and pause only change state and run the end callback.
+    private static class FakeAnimation implements BubbleAnimators.Animation {
+        Runnable onEnd;
+        boolean started;
+        boolean ended;
+        boolean cancelled;
+        boolean paused;
+
+        @Override
+        public void setOnEnd(Runnable onEnd) {
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public void end() {
+            if (started && !ended) {
+                ended = true;
+                onEnd.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (started && !ended) {
+                cancelled = true;
+                end();
+            }
+        }
+
+        @Override
+        public void pause() {
+            paused = true;
+        }
+
+        @Override
+        public void resume() {
+            paused = false;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        animators = new BubbleAnimators();
+    }
+
+    private BubbleFieldView.Bubble bubble(long id) {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("task " + id, MainActivity.TaskCategory.WORK);
+        task.setId(id);
+        return new BubbleFieldView.Bubble(new MainActivity.BubbleTask(task), 80);
+    }
+
+    private FakeAnimation start(BubbleFieldView.Bubble bubble) {
+        FakeAnimation animator = new FakeAnimation();
+        animators.start(animator, Collections.singletonList(bubble));
+        return animator;
+    }
+
+    @Test
+    public void endedAnimation_isNoLongerTracked() {
+        BubbleFieldView.Bubble bubble = bubble(1);
+        FakeAnimation animator = start(bubble);
+        assertEquals(1, animators.getRunningCount());
+        assertEquals(1, bubble.animators.size());
+
+        animator.end();
+
+        assertEquals(0, animators.getRunningCount());
+        assertTrue(bubble.animators.isEmpty());
+    }
+
+    @Test
+    public void cancel_stopsOnlyThatBubblesAnimations() {
+        BubbleFieldView.Bubble first = bubble(1);
+        BubbleFieldView.Bubble second = bubble(2);
+        FakeAnimation entrance = start(first);
+        FakeAnimation pulse = start(first);
+        FakeAnimation other = start(second);
+
+        animators.cancel(first);
+
+        assertTrue(entrance.cancelled);
+        assertTrue(pulse.cancelled);
+        assertFalse(other.ended);
+        assertEquals(1, animators.getRunningCount());
+    }
+
+    @Test
+    public void pauseAndResume_reachEveryRunningAnimation() {
+        FakeAnimation first = start(bubble(1));
+        FakeAnimation second = start(bubble(2));
+
+        animators.pause();
+        assertTrue(first.paused);
+        assertTrue(second.paused);
+
+        animators.resume();
+        assertFalse(first.paused);
+        assertFalse(second.paused);
+    }
+
+    @Test
+    public void startWhilePaused_jumpsToTheEnd() {
+        BubbleFieldView.Bubble bubble = bubble(1);
+        animators.pause();
+
+        FakeAnimation animator = start(bubble);
+
+        assertTrue(animator.ended);
+        assertFalse(animator.paused);
+        assertTrue(bubble.animators.isEmpty());
+        assertEquals(0, animators.getRunningCount());
+    }
+
+    @Test
+    public void overBudget_freezesHiddenBubblesFirstThenTheOldest() {
+        animators.setBudget(2);
+        BubbleFieldView.Bubble hidden = bubble(1);
+        FakeAnimation oldest = start(bubble(2));
+        FakeAnimation ofHidden = start(hidden);
+        hidden.setHidden(true);
+
+        FakeAnimation third = start(bubble(3));
+        assertTrue(ofHidden.ended);
+        assertFalse(oldest.ended);
+
+        FakeAnimation fourth = start(bubble(4));
+        assertTrue(oldest.ended);
+        assertFalse(third.ended);
+        assertFalse(fourth.ended);
+        assertEquals(2, animators.getRunningCount());
+    }
+
+    @Test
+    public void animationOfHiddenBubble_isFrozenAtOnce() {
+        BubbleFieldView.Bubble bubble = bubble(1);
+        bubble.setHidden(true);
+
+        assertTrue(start(bubble).ended);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class BubblePhysicsTest {
+    private SpatialGrid grid;
+    private BubblePhysics physics;
+
+    @Before
+    public void setUp() {
+        grid = new SpatialGrid(256);
+        grid.resize(1000, 2000, new ArrayList<>());
+        physics = new BubblePhysics(grid);
+        physics.setBounds(1000, 2000);
+    }
+
+    private BubbleFieldView.Bubble addBubble(long id, float x, float y, float radius) {
+        MainActivity.BubbleTask task = new MainActivity.BubbleTask(
+                new TaskManager.EnhancedBubbleTask("task " + id, MainActivity.TaskCategory.WORK));
+        BubbleFieldView.Bubble bubble = new BubbleFieldView.Bubble(task, radius);
+        bubble.setPosition(x, y);
+        bubble.kinematic = false;
+        grid.insert(bubble);
+        physics.add(bubble);
+        return bubble;
+    }
+
+    private void run(float seconds) {
+        for (float t = 0; t < seconds; t += 1f / 60f) {
+            physics.advance(1f / 60f);
+        }
+    }
+
+    @Test
+    public void overlappingBubbles_separate() {
+        BubbleFieldView.Bubble a = addBubble(1, 500, 1000, 100);
+        BubbleFieldView.Bubble b = addBubble(2, 520, 1000, 100);
+
+        run(5);
+
+        float distance = (float) Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+        assertTrue("distance " + distance, distance > 190);
+    }
+
+    @Test
+    public void bubbles_stayInsideTheWalls() {
+        BubbleFieldView.Bubble[] bubbles = new BubbleFieldView.Bubble[60];
+        for (int i = 0; i < bubbles.length; i++) {
+            bubbles[i] = addBubble(i, 500 + (i % 5), 1000 + (i % 7), 80);
+        }
+        BubbleFieldView.Bubble outside = addBubble(99, -50, 5000, 80);
+
+        run(10);
+
+        assertTrue(outside.getX() >= 80 && outside.getY() <= 1920);
+        for (BubbleFieldView.Bubble bubble : bubbles) {
+            assertTrue(bubble.getX() >= 80 && bubble.getX() <= 920);
+            assertTrue(bubble.getY() >= 80 && bubble.getY() <= 1920);
+        }
+    }
+
+    @Test
+    public void kinematicAndDisabled_bubblesDoNotMove() {
+        BubbleFieldView.Bubble held = addBubble(1, 500, 1000, 100);
+        BubbleFieldView.Bubble free = addBubble(2, 560, 1000, 100);
+        held.kinematic = true;
+
+        run(2);
+        assertEquals(500, held.getX(), 0f);
+        assertTrue(free.getX() > 560);
+
+        physics.setEnabled(false);
+        float x = free.getX();
+        float y = free.getY();
+        run(2);
+        assertEquals(x, free.getX(), 0f);
+        assertEquals(y, free.getY(), 0f);
+    }
+
+    @Test
+    public void remove_keepsTheOtherSlotsValid() {
+        BubbleFieldView.Bubble a = addBubble(1, 100, 100, 50);
+        BubbleFieldView.Bubble b = addBubble(2, 300, 300, 50);
+        BubbleFieldView.Bubble c = addBubble(3, 500, 500, 50);
+
+        physics.remove(a);
+
+        assertEquals(2, physics.size());
+        assertEquals(-1, a.slot);
+        assertEquals(0, c.slot);
+        assertEquals(1, b.slot);
+        physics.remove(a);
+        assertEquals(2, physics.size());
+    }
+}
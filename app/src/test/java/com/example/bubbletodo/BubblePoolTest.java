@@ -0,0 +1,91 @@
+package com.example.bubbletodo;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BubblePoolTest {
+    private BubblePool pool;
+
+    @Before
+    public void setUp() {
+        pool = new BubblePool();
+    }
+
+    private MainActivity.BubbleTask task(long id) {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("task " + id, MainActivity.TaskCategory.WORK);
+        task.setId(id);
+        return new MainActivity.BubbleTask(task);
+    }
+
+    @Test
+    public void addRemoveLoop_reusesBubbles() {
+        for (int i = 0; i < 100; i++) {
+            BubbleFieldView.Bubble bubble = pool.obtain(task(i), 80);
+            pool.recycle(bubble);
+        }
+
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(99, pool.getReusedCount());
+    }
+
+    @Test
+    public void reusedBubble_isReset() {
+        BubbleFieldView.Bubble bubble = pool.obtain(task(1), 80);
+        bubble.setPosition(200, 300);
+        bubble.kinematic = false;
+        bubble.slot = 4;
+        pool.recycle(bubble);
+
+        BubbleFieldView.Bubble reused = pool.obtain(task(2), 80.2f);
+
+        assertSame(bubble, reused);
+        assertEquals(2, reused.getTaskId());
+        assertEquals(80.2f, reused.getRadius(), 0f);
+        assertEquals(0, reused.getX(), 0f);
+        assertEquals(0, reused.getY(), 0f);
+        assertEquals(1f, reused.getAlpha(), 0f);
+        assertTrue(reused.kinematic);
+        assertEquals(-1, reused.slot);
+    }
+
+    @Test
+    public void obtain_onlyReusesTheSameSize() {
+        BubbleFieldView.Bubble bubble = pool.obtain(task(1), 80);
+        pool.recycle(bubble);
+
+        assertNotSame(bubble, pool.obtain(task(2), 100));
+        assertSame(bubble, pool.obtain(task(3), 80));
+    }
+
+    @Test
+    public void pool_isBounded() {
+        for (int i = 0; i < 100; i++) {
+            pool.recycle(new BubbleFieldView.Bubble(task(i), 80));
+        }
+        assertEquals(BubblePool.MAX_PER_SIZE, pool.size());
+
+        for (int i = 0; i < 100; i++) {
+            pool.recycle(new BubbleFieldView.Bubble(task(i), 40 + i));
+        }
+        assertEquals(BubblePool.MAX_POOLED, pool.size());
+    }
+
+    @Test
+    public void trim_shrinksThePool() {
+        for (int i = 0; i < 8; i++) {
+            pool.recycle(new BubbleFieldView.Bubble(task(i), 80));
+        }
+
+        pool.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(4, pool.size());
+
+        pool.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(0, pool.size());
+        assertNotNull(pool.obtain(task(1), 80));
+        assertEquals(1, pool.getCreatedCount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CirclePackerTest {
+    private static final MainActivity.TaskCategory[] CATEGORIES = MainActivity.TaskCategory.values();
+
+    private List<CirclePacker.Circle> circles(int count) {
+        int[] sizes = {130, 160, 200};
+        List<CirclePacker.Circle> circles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            circles.add(new CirclePacker.Circle(i + 1, CATEGORIES[i % CATEGORIES.length], sizes[i % sizes.length] / 2f));
+        }
+        return circles;
+    }
+
+    private void assertPacked(List<CirclePacker.Circle> placed, float width, float height) {
+        for (int i = 0; i < placed.size(); i++) {
+            CirclePacker.Circle a = placed.get(i);
+            assertTrue(a.x >= a.radius && a.x <= width - a.radius);
+            assertTrue(a.y >= a.radius && a.y <= height - a.radius);
+            for (int j = i + 1; j < placed.size(); j++) {
+                CirclePacker.Circle b = placed.get(j);
+                assertTrue("circles " + a.id + " and " + b.id + " overlap",
+                        Math.hypot(a.x - b.x, a.y - b.y) >= a.radius + b.radius);
+            }
+        }
+    }
+
+    @Test
+    public void packAll_placesEveryCircleWithoutOverlap() {
+        CirclePacker packer = new CirclePacker(1080, 1800);
+        List<CirclePacker.Circle> input = circles(30);
+
+        List<CirclePacker.Circle> placed = packer.packAll(input);
+
+        assertEquals(30, placed.size());
+        for (int i = 0; i < input.size(); i++) {
+            assertEquals(input.get(i).id, placed.get(i).id);
+        }
+        assertPacked(placed, 1080, 1800);
+    }
+
+    @Test
+    public void packAll_groupsByCategory() {
+        CirclePacker packer = new CirclePacker(1000, 1000);
+
+        List<CirclePacker.Circle> placed = packer.packAll(circles(12));
+
+        // With four categories each cluster stays in its own quadrant of the field.
+        for (CirclePacker.Circle circle : placed) {
+            int index = circle.category.ordinal();
+            assertEquals(index % 2, circle.x < 500 ? 0 : 1);
+            assertEquals(index / 2, circle.y < 500 ? 0 : 1);
+        }
+    }
+
+    @Test
+    public void add_leavesExistingCirclesInPlace() {
+        CirclePacker packer = new CirclePacker(1080, 1800);
+        List<CirclePacker.Circle> before = packer.packAll(circles(20));
+
+        CirclePacker.Circle added = packer.add(new CirclePacker.Circle(99, MainActivity.TaskCategory.URGENT, 100));
+
+        List<CirclePacker.Circle> after = new ArrayList<>(packer.getPlaced());
+        assertEquals(21, after.size());
+        assertTrue(after.containsAll(before));
+        assertTrue(after.contains(added));
+        assertPacked(after, 1080, 1800);
+
+        packer.remove(99);
+        assertEquals(20, packer.getPlaced().size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FreeSpaceIndexTest {
+    private FreeSpaceIndex index;
+    private final List<BubbleFieldView.Bubble> bubbles = new ArrayList<>();
+    private final float[] out = new float[3];
+
+    @Before
+    public void setUp() {
+        index = new FreeSpaceIndex(10);
+        index.resize(400, 400, bubbles);
+    }
+
+    private BubbleFieldView.Bubble addBubble(long id, float x, float y, float radius) {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("task " + id, MainActivity.TaskCategory.WORK);
+        task.setId(id);
+        BubbleFieldView.Bubble bubble = new BubbleFieldView.Bubble(new MainActivity.BubbleTask(task), radius);
+        bubble.setPosition(x, y);
+        bubbles.add(bubble);
+        index.insert(bubble);
+        return bubble;
+    }
+
+    private static boolean overlaps(float x, float y, float radius, float otherX, float otherY, float otherRadius) {
+        float minDistance = radius + otherRadius;
+        float dx = x - otherX;
+        float dy = y - otherY;
+        return dx * dx + dy * dy < minDistance * minDistance;
+    }
+
+    @Test
+    public void emptyField_findsSpotNearThePoint() {
+        assertTrue(index.find(300, 300, 30, out));
+
+        assertTrue(Math.abs(out[0] - 300) <= 40);
+        assertTrue(Math.abs(out[1] - 300) <= 40);
+        assertTrue(out[2] >= 0);
+    }
+
+    @Test
+    public void find_avoidsOccupiedSpace() {
+        addBubble(1, 100, 100, 90);
+        addBubble(2, 300, 100, 90);
+        addBubble(3, 100, 300, 90);
+
+        assertTrue(index.find(100, 100, 40, out));
+
+        for (BubbleFieldView.Bubble bubble : bubbles) {
+            assertFalse(overlaps(out[0], out[1], 40, bubble.getX(), bubble.getY(), bubble.getRadius()));
+        }
+        assertTrue(out[0] > 200 && out[1] > 200);
+    }
+
+    @Test
+    public void movedBubble_freesItsOldSpace() {
+        BubbleFieldView.Bubble bubble = addBubble(1, 100, 100, 95);
+        addBubble(2, 300, 300, 95);
+        addBubble(3, 100, 300, 95);
+
+        bubble.setPosition(300, 100);
+
+        assertTrue(index.find(100, 100, 40, out));
+        assertTrue(out[0] < 200 && out[1] < 200);
+    }
+
+    @Test
+    public void removedBubble_freesItsSpace() {
+        BubbleFieldView.Bubble bubble = addBubble(1, 200, 200, 200);
+        assertFalse(index.find(200, 200, 40, out));
+
+        index.remove(bubble);
+
+        assertTrue(index.find(200, 200, 40, out));
+    }
+
+    @Test
+    public void reservation_holdsTheTargetUntilReleased() {
+        BubbleFieldView.Bubble entering = addBubble(1, 200, 390, 40);
+        index.reserve(entering, 60, 60);
+
+        // Moving toward the target does not give the reserved space up
+        entering.setPosition(200, 300);
+        assertTrue(index.find(60, 60, 40, out));
+        assertFalse(overlaps(out[0], out[1], 40, 60, 60, 40));
+
+        index.unreserve(entering);
+
+        assertTrue(index.find(60, 60, 40, out));
+        assertEquals(40, out[0], 0.01);
+        assertEquals(40, out[1], 0.01);
+    }
+
+    @Test
+    public void fullField_fallsBackToLargestFreeSquare() {
+        addBubble(1, 100, 200, 200);
+        BubbleFieldView.Bubble bubble = addBubble(2, 300, 200, 200);
+        assertFalse(index.find(200, 200, 20, out));
+
+        // Leaves the top right 90x150 free; the largest aligned square in it is 80px
+        bubble.setPosition(300, 350);
+
+        assertTrue(index.find(200, 200, 150, out));
+        assertEquals(360, out[0], 0.01);
+        assertEquals(40, out[1], 0.01);
+        assertEquals(0, out[2], 0.01);
+    }
+
+    @Test
+    public void resize_keepsBubblesIndexed() {
+        addBubble(1, 100, 100, 95);
+
+        index.resize(200, 200, bubbles);
+
+        assertFalse(index.find(100, 100, 5, out));
+    }
+
+    @Test
+    public void bubblesAddedBeforeTheFirstResize_areCountedOnceSized() {
+        index = new FreeSpaceIndex(10);
+        BubbleFieldView.Bubble kept = addBubble(1, 100, 100, 90);
+        BubbleFieldView.Bubble removed = addBubble(2, 300, 300, 90);
+        assertFalse(index.find(100, 100, 40, out));
+        kept.setPosition(300, 100);
+        index.remove(removed);
+        bubbles.remove(removed);
+
+        index.resize(400, 400, bubbles);
+
+        assertTrue(index.find(300, 100, 40, out));
+        assertFalse(overlaps(out[0], out[1], 40, kept.getX(), kept.getY(), kept.getRadius()));
+        assertTrue(index.find(300, 300, 40, out));
+        assertTrue(Math.abs(out[0] - 300) <= 60 && Math.abs(out[1] - 300) <= 60);
+    }
+}
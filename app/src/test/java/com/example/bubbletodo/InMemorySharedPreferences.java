@@ -0,0 +1,72 @@
+package com.example.bubbletodo;
+
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** {@link SharedPreferences} backed by a map, counting edits for the SettingsStore tests. */
+class InMemorySharedPreferences implements SharedPreferences {
+    private final Map<String, Object> values = new HashMap<>();
+    private final List<OnSharedPreferenceChangeListener> listeners = new CopyOnWriteArrayList<>();
+    volatile int edits;
+    // False to act like API < 30, where a clear is not reported to the listeners.
+    volatile boolean reportsClear = true;
+
+    @Override public synchronized Map<String, ?> getAll() { return new HashMap<>(values); }
+    @Override public synchronized String getString(String key, String defValue) { return (String) values.getOrDefault(key, defValue); }
+    @SuppressWarnings("unchecked")
+    @Override public synchronized Set<String> getStringSet(String key, Set<String> defValues) { return (Set<String>) values.getOrDefault(key, defValues); }
+    @Override public synchronized int getInt(String key, int defValue) { return (Integer) values.getOrDefault(key, defValue); }
+    @Override public synchronized long getLong(String key, long defValue) { return (Long) values.getOrDefault(key, defValue); }
+    @Override public synchronized float getFloat(String key, float defValue) { return (Float) values.getOrDefault(key, defValue); }
+    @Override public synchronized boolean getBoolean(String key, boolean defValue) { return (Boolean) values.getOrDefault(key, defValue); }
+    @Override public synchronized boolean contains(String key) { return values.containsKey(key); }
+    @Override public Editor edit() { return new InMemoryEditor(); }
+    @Override public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) { listeners.add(listener); }
+    @Override public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) { listeners.remove(listener); }
+
+    // Like the platform, a cleared edit reports a null key before the keys it put.
+    private class InMemoryEditor implements Editor {
+        private final Map<String, Object> changes = new HashMap<>();
+        private final Set<String> removals = new HashSet<>();
+        private boolean clear;
+
+        @Override public Editor putString(String key, String value) { changes.put(key, value); return this; }
+        @Override public Editor putStringSet(String key, Set<String> values) { changes.put(key, values); return this; }
+        @Override public Editor putInt(String key, int value) { changes.put(key, value); return this; }
+        @Override public Editor putLong(String key, long value) { changes.put(key, value); return this; }
+        @Override public Editor putFloat(String key, float value) { changes.put(key, value); return this; }
+        @Override public Editor putBoolean(String key, boolean value) { changes.put(key, value); return this; }
+        @Override public Editor remove(String key) { removals.add(key); return this; }
+        @Override public Editor clear() { clear = true; return this; }
+        @Override public boolean commit() { apply(); return true; }
+
+        @Override
+        public void apply() {
+            synchronized (InMemorySharedPreferences.this) {
+                edits++;
+                if (clear) {
+                    values.clear();
+                }
+                values.keySet().removeAll(removals);
+                values.putAll(changes);
+            }
+            for (OnSharedPreferenceChangeListener listener : listeners) {
+                if (clear && reportsClear) {
+                    listener.onSharedPreferenceChanged(InMemorySharedPreferences.this, null);
+                }
+                for (String key : changes.keySet()) {
+                    listener.onSharedPreferenceChanged(InMemorySharedPreferences.this, key);
+                }
+                for (String key : removals) {
+                    listener.onSharedPreferenceChanged(InMemorySharedPreferences.this, key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bubbletodo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** {@link TaskStore} backed by a map, counting batches for the TaskManager tests. */
+class InMemoryTaskStore implements TaskStore {
+    final Map<Long, TaskManager.EnhancedBubbleTask> tasks = new LinkedHashMap<>();
+    int writes;
+    int flushes;
+    int rollbacks;
+    // The next this many adds fail, as a full disk would.
+    volatile int failingAdds;
+
+    @Override public boolean isEmpty() { return tasks.isEmpty(); }
+    @Override public List<TaskManager.EnhancedBubbleTask> load() { return new ArrayList<>(tasks.values()); }
+    @Override public void add(TaskManager.EnhancedBubbleTask task) throws IOException {
+        if (failingAdds > 0) {
+            failingAdds--;
+            throw new IOException("Disk full");
+        }
+        writes++;
+        tasks.put(task.getId(), task);
+    }
+    @Override public void update(TaskManager.EnhancedBubbleTask task) { writes++; tasks.put(task.getId(), task); }
+    @Override public void remove(long taskId) { writes++; tasks.remove(taskId); }
+    @Override public void clear() { writes++; tasks.clear(); }
+    @Override public void replaceAll(List<TaskManager.EnhancedBubbleTask> replacement) {
+        tasks.clear();
+        for (TaskManager.EnhancedBubbleTask task : replacement) {
+            tasks.put(task.getId(), task);
+        }
+    }
+    @Override public void flush() { flushes++; }
+    @Override public void rollback() { rollbacks++; }
+    @Override public void close() { }
+}
@@ -0,0 +1,89 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void emptyHistogram_reportsZero() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "Test");
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentile(50));
+    }
+
+    @Test
+    public void percentiles_areWithinOneBucket() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "Test");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * MS);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100 * MS, histogram.getMax());
+        assertWithin(50 * MS, histogram.percentile(50));
+        assertWithin(95 * MS, histogram.percentile(95));
+        assertWithin(99 * MS, histogram.percentile(99));
+        assertEquals(100 * MS, histogram.percentile(100));
+    }
+
+    @Test
+    public void valuesBeyondTheLastBucket_reportTheMax() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "Test");
+        histogram.record(60_000 * MS);
+
+        assertEquals(60_000 * MS, histogram.percentile(99));
+    }
+
+    @Test
+    public void concurrentRecording_losesNothing() throws Exception {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "Test");
+        Metrics.Counter counter = new Metrics.Counter("test");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i * 1000L);
+                    counter.increment();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(40_000, counter.get());
+        assertEquals(9_999_000L, histogram.getMax());
+    }
+
+    @Test
+    public void export_writesOneCsvLinePerMetric() throws IOException {
+        StringWriter out = new StringWriter();
+        Metrics.export(out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals("metric,count,p50_ms,p95_ms,p99_ms,max_ms", lines[0]);
+        assertEquals(1 + Metrics.getHistograms().size() + Metrics.getCounters().size(), lines.length);
+        assertTrue(lines[1].startsWith(Metrics.TASK_PERSIST.getName() + ","));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.2);
+    }
+}
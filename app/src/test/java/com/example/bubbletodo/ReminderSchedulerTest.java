@@ -0,0 +1,110 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReminderSchedulerTest {
+    private long now;
+    private final List<Long> alarms = new ArrayList<>();
+    private ReminderScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        scheduler = new ReminderScheduler(() -> now, new ReminderScheduler.AlarmSink() {
+            @Override
+            public void setAlarm(long triggerAtMillis) {
+                alarms.add(triggerAtMillis);
+            }
+
+            @Override
+            public void cancelAlarm() {
+                alarms.add(-1L);
+            }
+        }, 1_000);
+    }
+
+    @Test
+    public void registersOnlyTheEarliestTrigger() {
+        scheduler.schedule(1, 5_000);
+        scheduler.schedule(2, 9_000);
+        scheduler.schedule(3, 7_000);
+        scheduler.schedule(4, 2_000);
+
+        assertEquals(Arrays.asList(5_000L, 2_000L), alarms);
+        assertEquals(2_000, scheduler.nextTrigger());
+    }
+
+    @Test
+    public void fireDue_coalescesRemindersWithinWindow() {
+        scheduler.schedule(1, 10_000);
+        scheduler.schedule(2, 10_400);
+        scheduler.schedule(3, 10_900);
+        scheduler.schedule(4, 12_000);
+
+        now = 5_000;
+        assertTrue(scheduler.fireDue().isEmpty());
+
+        now = 10_000;
+        assertEquals(Arrays.asList(1L, 2L, 3L), scheduler.fireDue());
+        assertEquals(12_000L, (long) alarms.get(alarms.size() - 1));
+
+        now = 12_000;
+        int registered = alarms.size();
+        assertEquals(Collections.singletonList(4L), scheduler.fireDue());
+        // The spent alarm needs no cancel, and nothing is left to register.
+        assertEquals(registered, alarms.size());
+        assertEquals(-1, scheduler.nextTrigger());
+    }
+
+    @Test
+    public void rescheduleAndCancel_moveTheAlarm() {
+        scheduler.schedule(1, 5_000);
+        scheduler.schedule(2, 8_000);
+
+        scheduler.schedule(1, 20_000);
+        assertEquals(8_000, scheduler.nextTrigger());
+        assertEquals(8_000L, (long) alarms.get(alarms.size() - 1));
+
+        assertTrue(scheduler.cancel(2));
+        assertFalse(scheduler.cancel(2));
+        assertEquals(20_000L, (long) alarms.get(alarms.size() - 1));
+
+        now = 20_000;
+        assertEquals(Collections.singletonList(1L), scheduler.fireDue());
+    }
+
+    @Test
+    public void randomOperations_fireInTriggerOrder() {
+        Random random = new Random(7);
+        for (long id = 1; id <= 2_000; id++) {
+            scheduler.schedule(id, random.nextInt(1_000_000));
+        }
+        for (long id = 1; id <= 2_000; id += 3) {
+            scheduler.schedule(id, random.nextInt(1_000_000));
+        }
+        for (long id = 2; id <= 2_000; id += 5) {
+            scheduler.cancel(id);
+        }
+
+        long last = Long.MIN_VALUE;
+        int fired = 0;
+        int expected = scheduler.size();
+        while (scheduler.size() > 0) {
+            long next = scheduler.nextTrigger();
+            assertTrue(next >= last);
+            last = next;
+            now = next - 1_000;
+            fired += scheduler.fireDue().size();
+        }
+        assertEquals(expected, fired);
+    }
+}
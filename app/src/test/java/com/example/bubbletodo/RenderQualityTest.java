@@ -0,0 +1,71 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RenderQualityTest {
+    private static final long BUDGET = 16_666_667L;
+
+    private RenderQuality quality;
+
+    @Before
+    public void setUp() {
+        quality = new RenderQuality(BUDGET);
+    }
+
+    // Feeds one window in which every tenth frame missed a vsync (or none, if smooth).
+    private boolean feedWindow(boolean janky) {
+        boolean changed = false;
+        for (int i = 0; i < RenderQuality.WINDOW_FRAMES; i++) {
+            changed |= quality.onFrame(janky && i % 10 == 0 ? 2 * BUDGET : BUDGET);
+        }
+        return changed;
+    }
+
+    @Test
+    public void smoothFrames_keepFullQuality() {
+        for (int i = 0; i < 5; i++) {
+            assertFalse(feedWindow(false));
+        }
+        assertEquals(RenderQuality.Tier.FULL, quality.getTier());
+    }
+
+    @Test
+    public void droppedFrames_stepDownOneTierPerWindow() {
+        assertTrue(feedWindow(true));
+        assertEquals(RenderQuality.Tier.NO_SHADOW, quality.getTier());
+        assertFalse(quality.getTier().drawsShadows());
+        assertTrue(quality.getTier().drawsGradients());
+
+        feedWindow(true);
+        assertEquals(RenderQuality.Tier.FLAT, quality.getTier());
+        feedWindow(true);
+        assertEquals(RenderQuality.Tier.STILL, quality.getTier());
+        assertFalse(quality.getTier().pulses());
+
+        assertFalse(feedWindow(true));
+        assertEquals(RenderQuality.Tier.STILL, quality.getTier());
+    }
+
+    @Test
+    public void headroom_stepsBackUpAfterSeveralWindows() {
+        feedWindow(true);
+        feedWindow(true);
+        assertEquals(RenderQuality.Tier.FLAT, quality.getTier());
+
+        assertFalse(feedWindow(false));
+        assertFalse(feedWindow(false));
+        assertTrue(feedWindow(false));
+        assertEquals(RenderQuality.Tier.NO_SHADOW, quality.getTier());
+    }
+
+    @Test
+    public void occasionalSlowFrame_isIgnored() {
+        for (int i = 0; i < RenderQuality.WINDOW_FRAMES; i++) {
+            quality.onFrame(i == 0 ? 3 * BUDGET : BUDGET);
+        }
+        assertEquals(RenderQuality.Tier.FULL, quality.getTier());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bubbletodo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class SettingsStoreTest {
+    private InMemorySharedPreferences preferences;
+    private ScheduledExecutorService executor;
+    private SettingsStore store;
+    private final List<SettingsStore.Settings> notified = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        preferences = new InMemorySharedPreferences();
+        executor = Executors.newSingleThreadScheduledExecutor();
+        store = new SettingsStore(preferences, executor);
+        store.addListener(notified::add);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void emptyPreferences_readAsDefaults() {
+        SettingsStore.Settings settings = store.get();
+        assertTrue(settings.isSoundEnabled());
+        assertTrue(settings.isPhysicsEnabled());
+        assertFalse(settings.isAutoArrangeEnabled());
+        assertEquals(50, settings.getAnimationSpeed());
+        assertEquals(25, settings.getMaxBubbles());
+        assertEquals(0, settings.getTheme());
+    }
+
+    @Test
+    public void set_isVisibleAtOnceButNotYetWritten() {
+        store.setAnimationSpeed(80);
+
+        assertEquals(80, store.get().getAnimationSpeed());
+        assertEquals(1, notified.size());
+        assertEquals(80, notified.get(0).getAnimationSpeed());
+        assertEquals(0, preferences.edits);
+        assertFalse(preferences.contains(SettingsStore.KEY_ANIMATION_SPEED));
+    }
+
+    @Test
+    public void dragThenFlush_writesOnce() {
+        for (int speed = 51; speed <= 90; speed++) {
+            store.setAnimationSpeed(speed);
+        }
+        store.setMaxBubbles(40);
+
+        store.flush();
+
+        assertEquals(1, preferences.edits);
+        assertEquals(90, preferences.getInt(SettingsStore.KEY_ANIMATION_SPEED, 0));
+        assertEquals(40, preferences.getInt(SettingsStore.KEY_MAX_BUBBLES, 0));
+        // Writing the values back does not report them again.
+        assertEquals(41, notified.size());
+    }
+
+    @Test
+    public void sameValue_doesNotNotify() {
+        store.setSoundEnabled(true);
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void pendingWrite_happensAfterTheDelay() throws InterruptedException {
+        store.setTheme(3);
+
+        long deadline = System.currentTimeMillis() + 10 * SettingsStore.WRITE_DELAY_MS;
+        while (preferences.edits == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, preferences.edits);
+        assertEquals(3, preferences.getInt(SettingsStore.KEY_THEME, 0));
+    }
+
+    @Test
+    public void directPreferenceChange_refreshesTheSnapshot() {
+        preferences.edit().putBoolean(SettingsStore.KEY_VIBRATION_ENABLED, false).apply();
+
+        assertFalse(store.get().isVibrationEnabled());
+        assertEquals(1, notified.size());
+    }
+
+    @Test
+    public void otherKeys_areIgnored() {
+        preferences.edit().putInt("tasks_created", 5).apply();
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    public void pendingValue_survivesAnUnrelatedReload() {
+        store.setMaxBubbles(12);
+        preferences.edit().putBoolean(SettingsStore.KEY_PHYSICS_ENABLED, false).apply();
+
+        assertEquals(12, store.get().getMaxBubbles());
+        assertFalse(store.get().isPhysicsEnabled());
+    }
+
+    @Test
+    public void resetToDefaults_writesEverySetting() {
+        store.setAutoArrange(true);
+        store.setTheme(2);
+        store.flush();
+        notified.clear();
+
+        store.resetToDefaults();
+
+        assertEquals(SettingsStore.Settings.DEFAULTS, store.get());
+        assertEquals(1, notified.size());
+        assertEquals(0, preferences.getInt(SettingsStore.KEY_THEME, -1));
+        assertEquals(25, preferences.getInt(SettingsStore.KEY_MAX_BUBBLES, -1));
+    }
+
+    @Test
+    public void clearAll_leavesDefaultsWithoutAClearNotification() {
+        preferences.reportsClear = false;
+        store.setTheme(2);
+        store.flush();
+        store.setMaxBubbles(40);
+
+        store.clearAll();
+        store.flush();
+
+        assertEquals(SettingsStore.Settings.DEFAULTS, store.get());
+        assertEquals(SettingsStore.Settings.DEFAULTS, notified.get(notified.size() - 1));
+        assertFalse(preferences.contains(SettingsStore.KEY_THEME));
+        assertFalse(preferences.contains(SettingsStore.KEY_MAX_BUBBLES));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SpatialGridTest {
+    private SpatialGrid grid;
+    private final List<BubbleFieldView.Bubble> bubbles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        grid = new SpatialGrid(100);
+        grid.resize(1000, 1000, bubbles);
+    }
+
+    private BubbleFieldView.Bubble addBubble(long id, float x, float y, float radius) {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("task " + id, MainActivity.TaskCategory.WORK);
+        task.setId(id);
+        BubbleFieldView.Bubble bubble = new BubbleFieldView.Bubble(new MainActivity.BubbleTask(task), radius);
+        bubble.setPosition(x, y);
+        bubble.order = bubbles.size();
+        bubbles.add(bubble);
+        grid.insert(bubble);
+        return bubble;
+    }
+
+    private Set<Long> ids(List<BubbleFieldView.Bubble> found) {
+        Set<Long> ids = new HashSet<>();
+        for (BubbleFieldView.Bubble bubble : found) {
+            ids.add(bubble.getTaskId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void topmostAt_prefersTheLaterBubble() {
+        addBubble(1, 200, 200, 60);
+        addBubble(2, 240, 200, 60);
+
+        assertEquals(2, grid.topmostAt(220, 200).getTaskId());
+        assertEquals(1, grid.topmostAt(150, 200).getTaskId());
+        assertNull(grid.topmostAt(600, 600));
+    }
+
+    @Test
+    public void movedBubble_isFoundInItsNewCells() {
+        BubbleFieldView.Bubble bubble = addBubble(1, 150, 150, 40);
+
+        bubble.setPosition(750, 850);
+
+        assertNull(grid.topmostAt(150, 150));
+        assertSame(bubble, grid.topmostAt(760, 860));
+        grid.remove(bubble);
+        assertNull(grid.topmostAt(760, 860));
+    }
+
+    @Test
+    public void curvedSwipe_findsBubblesOffTheStraightLine() {
+        addBubble(1, 100, 500, 50);
+        addBubble(2, 500, 120, 50);
+        addBubble(3, 900, 500, 50);
+        addBubble(4, 500, 500, 50);
+
+        // An arch over the field: its chord passes through bubble 4, the path does not.
+        float[] path = {100, 500, 300, 200, 500, 100, 700, 200, 900, 500};
+        List<BubbleFieldView.Bubble> found = new ArrayList<>();
+        grid.collectNearPath(path, 5, 100, found);
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), ids(found));
+    }
+
+    @Test
+    public void resize_keepsEveryBubble() {
+        addBubble(1, 50, 50, 30);
+        addBubble(2, 1500, 1500, 30);
+
+        grid.resize(2000, 2000, bubbles);
+
+        assertEquals(1, grid.topmostAt(50, 50).getTaskId());
+        assertEquals(2, grid.topmostAt(1500, 1500).getTaskId());
+    }
+
+    @Test
+    public void collectNeighbours_findsOnlyBubblesSharingACell() {
+        BubbleFieldView.Bubble center = addBubble(1, 250, 250, 40);
+        addBubble(2, 300, 260, 40);
+        addBubble(3, 190, 210, 20);
+        addBubble(4, 800, 800, 40);
+        addBubble(5, 250, 450, 40);
+
+        List<BubbleFieldView.Bubble> found = new ArrayList<>();
+        grid.collectNeighbours(center, found);
+
+        assertEquals(new HashSet<>(Arrays.asList(2L, 3L)), ids(found));
+        assertEquals(2, found.size());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.bubbletodo;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskBinaryCodecTest {
+    private static final int SIZE_SAMPLE_TASKS = 1_000;
+    private static final int BENCHMARK_TASKS = 100_000;
+
+    private static List<TaskManager.EnhancedBubbleTask> sampleTasks(int count) {
+        MainActivity.TaskCategory[] categories = MainActivity.TaskCategory.values();
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask(
+                    "Task number " + i, categories[i % categories.length]);
+            task.setId(i + 1);
+            task.setPriority(1 + i % 3);
+            task.setPinned(i % 7 == 0);
+            task.setCompleted(i % 5 == 0);
+            if (i % 2 == 0) {
+                task.setDueDate(new Date(1760000000000L + i * 60_000L));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Test
+    public void roundTrip_preservesEveryField() throws Exception {
+        TaskManager.EnhancedBubbleTask task =
+                new TaskManager.EnhancedBubbleTask("Héllo bubble 🎈", MainActivity.TaskCategory.HEALTH);
+        task.setId(123456789L);
+        task.setPinned(true);
+        task.setCompleted(true);
+        task.setPriority(3);
+        task.setNotes("notes");
+        task.setDueDate(new Date(1760000000123L));
+        task.setReminderId(-1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskBinaryCodec.writeAll(out, Arrays.asList(task));
+        List<TaskManager.EnhancedBubbleTask> read =
+                TaskBinaryCodec.readAll(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(1, read.size());
+        TaskManager.EnhancedBubbleTask copy = read.get(0);
+        assertEquals(task.getId(), copy.getId());
+        assertEquals(task.getText(), copy.getText());
+        assertEquals(task.getCategory(), copy.getCategory());
+        assertTrue(copy.isPinned());
+        assertTrue(copy.isCompleted());
+        assertEquals(3, copy.getPriority());
+        assertEquals("notes", copy.getNotes());
+        assertEquals(task.getCreatedDate(), copy.getCreatedDate());
+        assertEquals(task.getDueDate(), copy.getDueDate());
+        assertEquals(-1, copy.getReminderId());
+    }
+
+    @Test
+    public void readAll_fallsBackToLegacyGsonJson() throws Exception {
+        List<TaskManager.EnhancedBubbleTask> tasks = sampleTasks(3);
+        byte[] legacy = new Gson().toJson(tasks).getBytes(StandardCharsets.UTF_8);
+
+        List<TaskManager.EnhancedBubbleTask> read = TaskBinaryCodec.readAll(new ByteArrayInputStream(legacy));
+        assertEquals(3, read.size());
+        assertEquals("Task number 2", read.get(2).getText());
+    }
+
+    @Test
+    public void missingCreatedDate_roundTripsAsNull() throws Exception {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("undated", MainActivity.TaskCategory.WORK);
+        task.setCreatedDate(null);
+        task.setPriority(3);
+
+        byte[] bytes = TaskBinaryCodec.encode(task);
+        TaskManager.EnhancedBubbleTask copy = TaskBinaryCodec.decode(bytes, 0, bytes.length);
+
+        assertNull(copy.getCreatedDate());
+        assertEquals(3, copy.getPriority());
+        assertEquals("undated", copy.getText());
+    }
+
+    @Test
+    public void newerVersion_isReadSkippingUnknownFields() throws Exception {
+        TaskManager.EnhancedBubbleTask task = sampleTasks(1).get(0);
+        byte[] record = TaskBinaryCodec.encode(task);
+
+        // A version 2 record: the known fields plus two appended bytes.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{'B', 'T', 'S', 'K', 2});
+        out.write(record.length + 2);
+        out.write(record);
+        out.write(new byte[]{7, 7});
+        List<TaskManager.EnhancedBubbleTask> read =
+                TaskBinaryCodec.readAll(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(1, read.size());
+        assertEquals(task.getText(), read.get(0).getText());
+        assertEquals(task.getDueDate(), read.get(0).getDueDate());
+    }
+
+    @Test
+    public void encoding_isUnderAThirdOfTheGsonSize() throws Exception {
+        List<TaskManager.EnhancedBubbleTask> tasks = sampleTasks(SIZE_SAMPLE_TASKS);
+        String json = new Gson().toJson(tasks);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskBinaryCodec.writeAll(out, tasks);
+        List<TaskManager.EnhancedBubbleTask> read = TaskBinaryCodec.readAll(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(SIZE_SAMPLE_TASKS, read.size());
+        assertTrue(out.size() * 3 < json.length());
+    }
+
+    // Reports the speedup rather than asserting it, so a busy build machine cannot fail it.
+    @Test
+    public void benchmark_loadAndSave100kTasks_againstGson() throws Exception {
+        List<TaskManager.EnhancedBubbleTask> tasks = sampleTasks(BENCHMARK_TASKS);
+        Gson gson = new Gson();
+        Type listType = new TypeToken<List<TaskManager.EnhancedBubbleTask>>(){}.getType();
+
+        long bestGson = Long.MAX_VALUE;
+        long bestBinary = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            String json = gson.toJson(tasks);
+            List<TaskManager.EnhancedBubbleTask> fromJson = gson.fromJson(json, listType);
+            bestGson = Math.min(bestGson, System.nanoTime() - start);
+            assertEquals(BENCHMARK_TASKS, fromJson.size());
+
+            start = System.nanoTime();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TaskBinaryCodec.writeAll(out, tasks);
+            List<TaskManager.EnhancedBubbleTask> fromBinary =
+                    TaskBinaryCodec.readAll(new ByteArrayInputStream(out.toByteArray()));
+            bestBinary = Math.min(bestBinary, System.nanoTime() - start);
+            assertEquals(BENCHMARK_TASKS, fromBinary.size());
+        }
+
+        System.out.printf("%d tasks saved and loaded: gson %.1f ms, binary %.1f ms, %.1fx faster%n",
+                BENCHMARK_TASKS, bestGson / 1e6, bestBinary / 1e6, (double) bestGson / bestBinary);
+    }
+}
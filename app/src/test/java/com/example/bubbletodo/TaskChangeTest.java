@@ -0,0 +1,88 @@
+package com.example.bubbletodo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskChangeTest {
+    private final List<List<TaskChange>> batches = new ArrayList<>();
+    private TaskManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new TaskManager(new InMemoryTaskStore(), Runnable::run);
+        manager.addChangeListener(batches::add);
+    }
+
+    @Test
+    public void eachTransaction_isOneBatch() {
+        List<Long> ids = manager.addAll(Arrays.asList(
+                new TaskManager.EnhancedBubbleTask("a", MainActivity.TaskCategory.WORK),
+                new TaskManager.EnhancedBubbleTask("b", MainActivity.TaskCategory.WORK),
+                new TaskManager.EnhancedBubbleTask("c", MainActivity.TaskCategory.WORK)));
+        manager.removeAll(ids.subList(0, 2));
+
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.get(0).size());
+        for (TaskChange change : batches.get(0)) {
+            assertEquals(TaskChange.Kind.INSERTED, change.getKind());
+        }
+        assertEquals(2, batches.get(1).size());
+        assertEquals(TaskChange.Kind.REMOVED, batches.get(1).get(0).getKind());
+        assertNull(batches.get(1).get(0).getTask());
+        manager.close();
+    }
+
+    @Test
+    public void update_reportsOnlyChangedFields() {
+        long id = manager.addTask(new TaskManager.EnhancedBubbleTask("walk", MainActivity.TaskCategory.HEALTH));
+        batches.clear();
+
+        manager.update(id, task -> {
+            task.setText("run");
+            task.setPinned(true);
+        });
+        manager.update(id, task -> task.setText("run"));
+
+        assertEquals(1, batches.size());
+        TaskChange change = batches.get(0).get(0);
+        assertEquals(TaskChange.Kind.UPDATED, change.getKind());
+        assertEquals(TaskChange.TEXT | TaskChange.PINNED, change.getFields());
+        assertFalse(change.changed(TaskChange.COMPLETED));
+        assertEquals("run", change.getTask().getText());
+        manager.close();
+    }
+
+    @Test
+    public void undo_isReportedLikeAnyOtherTransaction() {
+        long id = manager.addTask(new TaskManager.EnhancedBubbleTask("walk", MainActivity.TaskCategory.HEALTH));
+        manager.update(id, task -> task.setCompleted(true));
+        batches.clear();
+
+        manager.undo();
+
+        assertEquals(1, batches.size());
+        TaskChange change = batches.get(0).get(0);
+        assertEquals(TaskChange.COMPLETED, change.getFields());
+        assertFalse(change.getTask().isCompleted());
+        manager.close();
+    }
+
+    @Test
+    public void changesToOneTask_foldIntoOne() {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("x", MainActivity.TaskCategory.WORK);
+        task.setId(1);
+        TaskManager.EnhancedBubbleTask pinned = task.copy();
+        pinned.setPinned(true);
+
+        TaskChange inserted = TaskChange.between(null, task);
+        assertNull(inserted.then(TaskChange.between(task, null)));
+        assertEquals(TaskChange.Kind.INSERTED, inserted.then(TaskChange.between(task, pinned)).getKind());
+        assertNull(TaskChange.between(task, task.copy()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskHistoryTest {
+    private List<Long> addTasks(TaskManager manager, int count) {
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new TaskManager.EnhancedBubbleTask("task " + i, MainActivity.TaskCategory.WORK));
+        }
+        return manager.addAll(tasks);
+    }
+
+    @Test
+    public void undoBurst_restoresEveryTaskInOneStep() throws Exception {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        TaskManager manager = new TaskManager(store, Runnable::run);
+        List<Long> ids = addTasks(manager, 20);
+        manager.update(ids.get(3), task -> task.setPinned(true));
+
+        assertEquals(20, manager.removeAll(ids));
+        assertTrue(manager.snapshot().isEmpty());
+
+        List<Long> restored = manager.undo();
+        assertEquals(20, restored.size());
+        assertEquals(20, manager.snapshot().size());
+        assertTrue(manager.getTask(ids.get(3)).isPinned());
+        assertTrue(manager.canRedo());
+
+        manager.flush().get();
+        assertEquals(20, store.tasks.size());
+
+        manager.redo();
+        assertTrue(manager.snapshot().isEmpty());
+        manager.undo();
+        manager.undo();
+        assertFalse(manager.getTask(ids.get(3)).isPinned());
+        manager.close();
+    }
+
+    @Test
+    public void newChange_dropsRedo() {
+        TaskManager manager = new TaskManager(new InMemoryTaskStore(), Runnable::run);
+        long id = manager.addTask(new TaskManager.EnhancedBubbleTask("walk", MainActivity.TaskCategory.HEALTH));
+        manager.update(id, task -> task.setPriority(1));
+        manager.undo();
+        assertTrue(manager.canRedo());
+
+        manager.update(id, task -> task.setPriority(2));
+        assertFalse(manager.canRedo());
+        assertEquals(2, manager.getTask(id).getPriority());
+        manager.close();
+    }
+
+    @Test
+    public void byteBudget_evictsOldestSteps() {
+        TaskHistory history = new TaskHistory(2_000);
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("x", MainActivity.TaskCategory.WORK);
+        task.setId(1);
+        for (int i = 0; i < 100; i++) {
+            history.record(task, task);
+            history.commit();
+            assertTrue(history.sizeInBytes() <= 2_000);
+        }
+        int steps = 0;
+        while (history.popUndo() != null) {
+            steps++;
+        }
+        assertTrue(steps > 0 && steps < 100);
+    }
+
+    @Test
+    public void oversizedStep_leavesNothingToUndo() {
+        TaskHistory history = new TaskHistory(200);
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask("x", MainActivity.TaskCategory.WORK);
+        task.setId(1);
+        history.record(task, task);
+        history.commit();
+        assertTrue(history.canUndo());
+
+        for (int i = 0; i < 10; i++) {
+            history.record(task, task);
+        }
+        history.commit();
+        // Undoing the earlier step now would skip over the one that was too large.
+        assertFalse(history.canUndo());
+        assertEquals(0, history.sizeInBytes());
+    }
+
+    @Test
+    public void undo_doesNotRepeatAReminderShownSince() {
+        long[] now = {1_000_000L};
+        ReminderScheduler scheduler = new ReminderScheduler(() -> now[0], new ReminderScheduler.AlarmSink() {
+            @Override
+            public void setAlarm(long triggerAtMillis) {}
+
+            @Override
+            public void cancelAlarm() {}
+        });
+        TaskManager manager = new TaskManager(new InMemoryTaskStore(), Runnable::run, scheduler);
+        TaskManager.EnhancedBubbleTask added = new TaskManager.EnhancedBubbleTask("call", MainActivity.TaskCategory.WORK);
+        added.setDueDate(new Date(now[0] + 60_000));
+        long id = manager.addTask(added);
+        manager.update(id, task -> task.setText("call back"));
+
+        now[0] += 120_000;
+        assertEquals(1, manager.takeDueReminders().size());
+
+        manager.undo();
+        assertEquals("call", manager.getTask(id).getText());
+        assertEquals(manager.getTask(id).getDueDate().getTime(), manager.getTask(id).getReminderId());
+        assertEquals(0, scheduler.size());
+        assertTrue(manager.takeDueReminders().isEmpty());
+        manager.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bubbletodo;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskJsonAdapterTest {
+    private TaskManager.EnhancedBubbleTask sampleTask() {
+        TaskManager.EnhancedBubbleTask task =
+                new TaskManager.EnhancedBubbleTask("Client meeting", MainActivity.TaskCategory.URGENT);
+        task.setId(7);
+        task.setPinned(true);
+        task.setPriority(3);
+        task.setNotes("bring slides");
+        task.setDueDate(new Date(1760000000000L));
+        return task;
+    }
+
+    private void assertSameTask(TaskManager.EnhancedBubbleTask expected, TaskManager.EnhancedBubbleTask actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.isPinned(), actual.isPinned());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getNotes(), actual.getNotes());
+        // Gson's text date format has second precision.
+        assertEquals(expected.getDueDate().getTime() / 1000, actual.getDueDate().getTime() / 1000);
+        assertEquals(expected.getCreatedDate().getTime() / 1000, actual.getCreatedDate().getTime() / 1000);
+    }
+
+    @Test
+    public void readAll_readsReflectiveGsonOutput() throws Exception {
+        TaskManager.EnhancedBubbleTask task = sampleTask();
+        String legacyJson = new Gson().toJson(Arrays.asList(task));
+
+        List<TaskManager.EnhancedBubbleTask> tasks = TaskJsonAdapter.readAll(new StringReader(legacyJson));
+        assertEquals(1, tasks.size());
+        assertSameTask(task, tasks.get(0));
+    }
+
+    @Test
+    public void writeAll_isReadableByReflectiveGson() throws Exception {
+        TaskManager.EnhancedBubbleTask task = sampleTask();
+        StringWriter writer = new StringWriter();
+        TaskJsonAdapter.writeAll(writer, Arrays.asList(task));
+
+        TaskManager.EnhancedBubbleTask[] tasks =
+                new Gson().fromJson(writer.toString(), TaskManager.EnhancedBubbleTask[].class);
+        assertEquals(1, tasks.length);
+        assertSameTask(task, tasks[0]);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskManagerBulkTest {
+    private List<TaskManager.EnhancedBubbleTask> newTasks(int count) {
+        List<TaskManager.EnhancedBubbleTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MainActivity.TaskCategory category = i % 2 == 0
+                    ? MainActivity.TaskCategory.WORK : MainActivity.TaskCategory.HEALTH;
+            tasks.add(new TaskManager.EnhancedBubbleTask("imported " + i, category));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void addAll_publishesOnceAndPersistsInOneBatch() throws Exception {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        TaskManager manager = new TaskManager(store, Runnable::run);
+        manager.awaitLoaded();
+        long versionBefore = manager.snapshot().getVersion();
+
+        List<Long> ids = manager.addAll(newTasks(200));
+        manager.flush().get();
+
+        assertEquals(200, ids.size());
+        assertEquals(versionBefore + 1, manager.snapshot().getVersion());
+        assertEquals(200, manager.snapshot().size());
+        assertEquals(100, manager.getTasksByCategory(MainActivity.TaskCategory.WORK).size());
+        assertEquals(200, store.tasks.size());
+        assertEquals(1, store.flushes);
+        manager.close();
+    }
+
+    @Test
+    public void removeIfAndCompleteAll_touchOnlyMatchingTasks() throws Exception {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        TaskManager manager = new TaskManager(store, Runnable::run);
+        List<Long> ids = manager.addAll(newTasks(10));
+        manager.flush().get();
+        store.writes = 0;
+
+        assertEquals(3, manager.completeAll(ids.subList(0, 3)));
+        assertEquals(5, manager.removeIf(task -> task.getCategory() == MainActivity.TaskCategory.HEALTH));
+        assertEquals(0, manager.updateAll(ids.subList(1, 2), task -> task.setPinned(true)));
+        manager.flush().get();
+
+        assertEquals(5, manager.snapshot().size());
+        assertEquals(2, manager.getCompletedTasks().size());
+        assertEquals(8, store.writes);
+        assertEquals(5, store.tasks.size());
+        manager.close();
+    }
+
+    @Test
+    public void failedBatch_isRolledBackAndRetried() throws Exception {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        store.failingAdds = 1;
+        TaskManager manager = new TaskManager(store, Runnable::run);
+        manager.addAll(newTasks(3));
+        manager.flush().get();
+
+        assertEquals(1, store.rollbacks);
+        assertEquals(0, store.flushes);
+
+        // The retry is scheduled on its own, without another flush.
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.tasks.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(3, store.tasks.size());
+        manager.close();
+    }
+}
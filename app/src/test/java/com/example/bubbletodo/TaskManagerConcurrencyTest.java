@@ -0,0 +1,131 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TaskManagerConcurrencyTest {
+    private static final int WRITERS = 8;
+    private static final int UPDATES_PER_WRITER = 5_000;
+    private static final int TASKS = 16;
+
+    @Test
+    public void concurrentUpdates_loseNothing() throws Exception {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        TaskManager manager = new TaskManager(store, Runnable::run);
+        long[] ids = new long[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            ids[i] = manager.addTask(new TaskManager.EnhancedBubbleTask("task " + i, MainActivity.TaskCategory.WORK));
+            manager.update(ids[i], task -> task.setPriority(0));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writerIndex = w;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                        long id = ids[(writerIndex + i) % TASKS];
+                        // Toggling the category moves the task between index lists on every update.
+                        manager.update(id, task -> {
+                            task.setPriority(task.getPriority() + 1);
+                            task.setCategory(task.getPriority() % 2 == 0
+                                    ? MainActivity.TaskCategory.WORK : MainActivity.TaskCategory.HEALTH);
+                        });
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+
+        // Readers check that every snapshot is internally consistent and versions never go back.
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    long lastVersion = 0;
+                    while (writersDone.getCount() > 0) {
+                        TaskSnapshot snapshot = manager.snapshot();
+                        assertTrue(snapshot.getVersion() >= lastVersion);
+                        lastVersion = snapshot.getVersion();
+                        int seen = 0;
+                        for (TaskManager.EnhancedBubbleTask task : snapshot.getAll()) {
+                            seen++;
+                            assertNotNull(task);
+                        }
+                        assertEquals(TASKS, seen);
+                        int categorized = snapshot.getByCategory(MainActivity.TaskCategory.WORK).size()
+                                + snapshot.getByCategory(MainActivity.TaskCategory.HEALTH).size();
+                        assertEquals(TASKS, categorized);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.MINUTES.toMillis(1));
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        int total = 0;
+        for (TaskManager.EnhancedBubbleTask task : manager.getAllTasks()) {
+            total += task.getPriority();
+        }
+        assertEquals(WRITERS * UPDATES_PER_WRITER, total);
+
+        manager.flush().get();
+        int stored = 0;
+        for (TaskManager.EnhancedBubbleTask task : store.tasks.values()) {
+            stored += task.getPriority();
+        }
+        assertEquals(WRITERS * UPDATES_PER_WRITER, stored);
+        manager.close();
+    }
+
+    @Test
+    public void snapshot_isUnaffectedByLaterWrites() {
+        TaskManager manager = new TaskManager(new InMemoryTaskStore(), Runnable::run);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(manager.addTask(new TaskManager.EnhancedBubbleTask("task " + i, MainActivity.TaskCategory.PERSONAL)));
+        }
+        TaskSnapshot before = manager.snapshot();
+
+        for (int i = 0; i < 80; i++) {
+            manager.remove(ids.get(i));
+        }
+        manager.update(ids.get(90), task -> task.setPinned(true));
+
+        assertEquals(100, before.size());
+        assertEquals(100, before.getByCategory(MainActivity.TaskCategory.PERSONAL).size());
+        assertTrue(before.getPinned().isEmpty());
+
+        TaskSnapshot after = manager.snapshot();
+        assertEquals(20, after.size());
+        assertEquals(1, after.getPinned().size());
+        assertEquals(ids.get(80).longValue(), after.getAll().iterator().next().getId());
+        manager.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class TaskManagerLoadTest {
+    // Holds the load until the test releases it.
+    private static class SlowStore extends InMemoryTaskStore {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public List<TaskManager.EnhancedBubbleTask> load() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.load();
+        }
+    }
+
+    private static TaskManager.EnhancedBubbleTask task(long id, String text) {
+        TaskManager.EnhancedBubbleTask task = new TaskManager.EnhancedBubbleTask(text, MainActivity.TaskCategory.WORK);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    public void changesBeforeTheLoad_doNotWaitAndAreMergedWithTheStoredTasks() throws Exception {
+        SlowStore store = new SlowStore();
+        store.tasks.put(1L, task(1, "stored"));
+        TaskManager manager = new TaskManager(store, Runnable::run);
+
+        long id = manager.addTask(new TaskManager.EnhancedBubbleTask("early", MainActivity.TaskCategory.HEALTH));
+        assertEquals(1, manager.snapshot().size());
+        assertEquals(1, manager.search("early").size());
+
+        store.release.countDown();
+        manager.awaitLoaded();
+        manager.flush().get();
+
+        assertEquals(2, manager.snapshot().size());
+        assertEquals("early", manager.getTask(id).getText());
+        assertEquals("stored", manager.getTask(1).getText());
+        assertEquals(2, store.tasks.size());
+        manager.close();
+    }
+
+    @Test
+    public void storedTaskWithATakenId_isRenumbered() throws Exception {
+        SlowStore store = new SlowStore();
+        store.tasks.put(7L, task(7, "stored"));
+        TaskManager manager = new TaskManager(store, Runnable::run);
+
+        manager.addTask(task(7, "early"));
+        store.release.countDown();
+        manager.awaitLoaded();
+        manager.flush().get();
+
+        assertEquals(2, manager.snapshot().size());
+        assertEquals("early", manager.getTask(7).getText());
+        assertEquals("early", store.tasks.get(7L).getText());
+        assertEquals(1, manager.search("stored").size());
+        long storedId = manager.search("stored").get(0).getId();
+        assertEquals("stored", store.tasks.get(storedId).getText());
+        manager.close();
+    }
+
+    @Test
+    public void clearBeforeTheLoad_dropsTheStoredTasks() throws Exception {
+        SlowStore store = new SlowStore();
+        store.tasks.put(1L, task(1, "stored"));
+        TaskManager manager = new TaskManager(store, Runnable::run);
+
+        manager.clearAllTasks();
+        store.release.countDown();
+        manager.awaitLoaded();
+        manager.flush().get();
+
+        assertTrue(manager.snapshot().isEmpty());
+        assertTrue(store.tasks.isEmpty());
+        manager.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bubbletodo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TaskSearchIndexTest {
+    private static final String[] WORDS = {
+            "buy", "groceries", "milk", "call", "client", "review", "proposal", "morning",
+            "workout", "meeting", "report", "dentist", "invoice", "garden", "laundry", "email"
+    };
+
+    private TaskManager.EnhancedBubbleTask task(long id, String text, String notes) {
+        TaskManager.EnhancedBubbleTask task =
+                new TaskManager.EnhancedBubbleTask(text, MainActivity.TaskCategory.PERSONAL);
+        task.setId(id);
+        task.setNotes(notes);
+        return task;
+    }
+
+    @Test
+    public void search_matchesWordPrefixesInTextAndNotes() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.put(task(1, "Buy groceries", "milk, eggs"));
+        index.put(task(2, "Client meeting", "bring the Proposal"));
+        index.put(task(3, "Morning workout", ""));
+
+        assertEquals(Collections.singleton(1L), index.search("gro"));
+        assertEquals(Collections.singleton(1L), index.search("MILK buy"));
+        assertEquals(Collections.singleton(2L), index.search("prop"));
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), index.search("m"));
+        assertTrue(index.search("gro meet").isEmpty());
+        assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    public void putAndRemove_updateIndexIncrementally() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.put(task(1, "Buy groceries", ""));
+        index.put(task(1, "Buy flowers", ""));
+
+        assertTrue(index.search("groceries").isEmpty());
+        assertEquals(Collections.singleton(1L), index.search("flow"));
+
+        index.remove(1);
+        assertTrue(index.search("buy").isEmpty());
+    }
+
+    @Test
+    public void search_over50kTasks_examinesOnlyTheNarrowestPrefix() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        for (int i = 1; i <= 50_000; i++) {
+            String text = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " item" + i;
+            index.put(task(i, text, WORDS[(i / 3) % WORDS.length]));
+        }
+
+        int[] cost = new int[1];
+        Set<Long> result = index.search("re item4999", cost);
+
+        assertFalse(result.isEmpty());
+        for (long id : result) {
+            assertTrue(String.valueOf(id).startsWith("4999"));
+        }
+        // "item4999" has 11 postings and each of those tasks at most 4 terms, while "re"
+        // alone matches thousands of tasks.
+        assertTrue("examined " + cost[0], cost[0] <= 11 + 11 * 4);
+        assertEquals(result, index.search("item4999 re"));
+    }
+}